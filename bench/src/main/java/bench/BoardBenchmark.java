@@ -0,0 +1,42 @@
+package bench;
+
+import controller.Game;
+import java.util.concurrent.TimeUnit;
+import model.board.Board;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Board.copy() e Board.pieces(boolean) sobre o corpus. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    @Param({"middlegame", "endgame"})
+    public String corpus;
+
+    private Board[] boards;
+
+    @Setup
+    public void setup() {
+        Game[] games = Positions.load(corpus);
+        boards = new Board[games.length];
+        for (int i = 0; i < games.length; i++) boards[i] = games[i].board();
+    }
+
+    @Benchmark
+    public void copy(Blackhole bh) {
+        for (Board b : boards) bh.consume(b.copy());
+    }
+
+    @Benchmark
+    public void pieces(Blackhole bh) {
+        for (Board b : boards) {
+            bh.consume(b.pieces(true));
+            bh.consume(b.pieces(false));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package bench;
+
+import controller.Game;
+import engine.Evaluator;
+import engine.IncrementalEvaluator;
+import engine.Network;
+import engine.NnueEvaluator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Avaliação estática sobre o corpus: clássica completa, clássica incremental e
+ * NNUE (só as camadas densas; os acumuladores já estão prontos). Nenhum peso da
+ * rede acompanha o jogo, então a NNUE é medida com uma rede de pesos aleatórios
+ * (semente fixa): o custo depende da arquitetura, não do que a rede aprendeu.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvalBenchmark {
+
+    @Param({"middlegame", "endgame"})
+    public String corpus;
+
+    private Game[] games;
+    private IncrementalEvaluator[] classical;
+    private NnueEvaluator[] nnue;
+
+    @Setup
+    public void setup() {
+        Network net = randomNetwork(new Random(1));
+        games = Positions.load(corpus);
+        classical = new IncrementalEvaluator[games.length];
+        nnue = new NnueEvaluator[games.length];
+        for (int i = 0; i < games.length; i++) {
+            classical[i] = new IncrementalEvaluator();
+            classical[i].attach(games[i].board().copy());
+            nnue[i] = new NnueEvaluator(net);
+            nnue[i].attach(games[i].board());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4) // posições por corpus
+    public void full(Blackhole bh) {
+        for (Game g : games) bh.consume(Evaluator.evaluate(g.board(), g.whiteToMove()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4) // posições por corpus
+    public void incremental(Blackhole bh) {
+        for (int i = 0; i < games.length; i++) bh.consume(classical[i].evaluate(games[i].whiteToMove()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4) // posições por corpus
+    public void nnue(Blackhole bh) {
+        for (int i = 0; i < games.length; i++) bh.consume(nnue[i].evaluate(games[i].whiteToMove()));
+    }
+
+    private static Network randomNetwork(Random rnd) {
+        short[] ftBias = new short[Network.HIDDEN];
+        short[] ftWeights = new short[Network.FEATURES * Network.HIDDEN];
+        byte[] l1Weights = new byte[Network.L1 * 2 * Network.HIDDEN];
+        byte[] l2Weights = new byte[Network.L1];
+        for (int i = 0; i < ftBias.length; i++) ftBias[i] = (short) rnd.nextInt(Network.QA);
+        for (int i = 0; i < ftWeights.length; i++) ftWeights[i] = (short) (rnd.nextInt(33) - 16);
+        rnd.nextBytes(l1Weights);
+        rnd.nextBytes(l2Weights);
+        return new Network(ftBias, ftWeights, l1Weights, new int[Network.L1], l2Weights, 0);
+    }
+}
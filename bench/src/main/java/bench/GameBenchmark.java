@@ -0,0 +1,114 @@
+package bench;
+
+import controller.Game;
+import java.util.concurrent.TimeUnit;
+import model.board.Position;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Consultas de Game: xeque (isSquareAttacked), lances legais, mate e Game.move. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param({"middlegame", "endgame"})
+    public String corpus;
+
+    private Game[] games;
+    private Position[][] squares;
+
+    @Setup
+    public void setup() {
+        games = Positions.load(corpus);
+        squares = new Position[games.length][];
+        for (int i = 0; i < games.length; i++) {
+            long own = games[i].board().occupancy(games[i].whiteToMove());
+            Position[] s = new Position[Long.bitCount(own)];
+            for (int k = 0; own != 0; k++, own &= own - 1) {
+                int sq = Long.numberOfTrailingZeros(own);
+                s[k] = Position.of(sq);
+            }
+            squares[i] = s;
+        }
+    }
+
+    @Benchmark
+    public void inCheck(Blackhole bh) {
+        for (Game g : games) {
+            bh.consume(g.inCheck(true));
+            bh.consume(g.inCheck(false));
+        }
+    }
+
+    /**
+     * Game guarda os lances legais da posição depois da primeira consulta, então
+     * cada chamada recebe cópias novas do corpus ({@link FreshState}): assim a medida
+     * inclui a geração dos lances, e não só a leitura do cache.
+     */
+    @Benchmark
+    public void legalMovesFrom(FreshState s, Blackhole bh) {
+        for (int i = 0; i < s.games.length; i++) {
+            for (Position from : squares[i]) bh.consume(s.games[i].legalMovesFrom(from));
+        }
+    }
+
+    /** Como {@link #legalMovesFrom}, sobre cópias novas a cada chamada. */
+    @Benchmark
+    public void isCheckmate(FreshState s, Blackhole bh) {
+        for (Game g : s.games) bh.consume(g.isCheckmate(g.whiteToMove()));
+    }
+
+    /**
+     * Game.move altera o jogo, então cada chamada recebe cópias novas do corpus
+     * (preparadas fora da medição, em {@link MoveState}).
+     */
+    @Benchmark
+    public void move(MoveState s, Blackhole bh) {
+        for (int i = 0; i < s.games.length; i++) {
+            s.games[i].move(s.moves[i][0], s.moves[i][1], null);
+            bh.consume(s.games[i].history());
+        }
+    }
+
+    /** Cópias do corpus sem lances legais em cache, refeitas antes de cada chamada. */
+    @State(Scope.Thread)
+    public static class FreshState {
+        Game[] games;
+        private Game[] originals;
+
+        @Setup(Level.Trial)
+        public void load(GameBenchmark b) {
+            originals = Positions.load(b.corpus);
+            games = new Game[originals.length];
+        }
+
+        @Setup(Level.Invocation)
+        public void fresh() {
+            for (int i = 0; i < originals.length; i++) games[i] = originals[i].snapshotPosition();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MoveState {
+        Game[] games;
+        Position[][] moves;
+        private Game[] originals;
+
+        @Setup(Level.Trial)
+        public void load(GameBenchmark b) {
+            originals = Positions.load(b.corpus);
+            moves = new Position[originals.length][];
+            for (int i = 0; i < originals.length; i++) moves[i] = Positions.firstLegalMove(originals[i]);
+            games = new Game[originals.length];
+        }
+
+        @Setup(Level.Invocation)
+        public void fresh() {
+            for (int i = 0; i < originals.length; i++) games[i] = originals[i].snapshotShallow();
+        }
+    }
+}
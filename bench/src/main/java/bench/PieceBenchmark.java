@@ -0,0 +1,77 @@
+package bench;
+
+import controller.Game;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.board.Board;
+import model.board.MoveList;
+import model.board.Position;
+import model.pieces.Piece;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Geração de pseudo-lances por tipo de peça, para todas as peças desse tipo no corpus:
+ * a visão em Position (getPossibleMoves) e a versão compactada num MoveList reutilizado.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceBenchmark {
+
+    @Param({"middlegame", "endgame"})
+    public String corpus;
+
+    @Param({"P", "N", "B", "R", "Q", "K"})
+    public String piece;
+
+    // Peça, tabuleiro e casa de cada ocorrência selecionada
+    private Piece[] pieces;
+    private Board[] boards;
+    private int[] squares;
+    private final MoveList buffer = new MoveList();
+
+    @Setup
+    public void setup() {
+        List<Piece> selPieces = new ArrayList<>();
+        List<Board> selBoards = new ArrayList<>();
+        List<Integer> selSquares = new ArrayList<>();
+        for (Game g : Positions.load(corpus)) {
+            Board b = g.board();
+            for (boolean white : new boolean[] { true, false }) {
+                for (int i = 0; i < b.pieces(white).size(); i++) {
+                    Piece p = b.pieces(white).get(i);
+                    if (!p.getSymbol().equals(piece)) continue;
+                    selPieces.add(p);
+                    selBoards.add(b);
+                    selSquares.add(b.pieceSquare(white, i));
+                }
+            }
+        }
+        pieces = selPieces.toArray(new Piece[0]);
+        boards = selBoards.toArray(new Board[0]);
+        squares = selSquares.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Benchmark
+    public void getPossibleMoves(Blackhole bh) {
+        for (int i = 0; i < pieces.length; i++) {
+            bh.consume(pieces[i].getPossibleMoves(boards[i], Position.of(squares[i])));
+        }
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        int n = 0;
+        for (int i = 0; i < pieces.length; i++) {
+            buffer.clear();
+            pieces[i].generateMoves(boards[i], squares[i], buffer);
+            n += buffer.size();
+        }
+        return n;
+    }
+}
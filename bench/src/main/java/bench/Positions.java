@@ -0,0 +1,56 @@
+package bench;
+
+import controller.Game;
+import java.util.List;
+import model.board.Position;
+
+/** Corpus fixo de posições usado por todos os benchmarks. */
+final class Positions {
+
+    static final List<String> MIDDLEGAME = List.of(
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+        "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8",
+        "2rq1rk1/pb1nbppp/1p2pn2/2pp4/2PP4/1PN1PN2/PB1QBPPP/2RR2K1 w - - 0 12"
+    );
+
+    static final List<String> ENDGAME = List.of(
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "8/8/4k3/3p4/3P4/4K3/8/8 w - - 0 1",
+        "8/5pk1/6p1/8/3R4/6P1/5PK1/3r4 w - - 0 40",
+        "8/1k6/3q4/8/8/4Q3/6K1/8 w - - 0 1"
+    );
+
+    private Positions() { }
+
+    static List<String> corpus(String name) {
+        return switch (name) {
+            case "middlegame" -> MIDDLEGAME;
+            case "endgame" -> ENDGAME;
+            default -> throw new IllegalArgumentException("Unknown corpus: " + name);
+        };
+    }
+
+    static Game[] load(String corpus) {
+        List<String> fens = corpus(corpus);
+        Game[] games = new Game[fens.size()];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = new Game();
+            games[i].loadFen(fens.get(i));
+        }
+        return games;
+    }
+
+    /** Primeiro lance legal do lado a jogar ({origem, destino}). */
+    static Position[] firstLegalMove(Game game) {
+        long own = game.board().occupancy(game.whiteToMove());
+        while (own != 0) {
+            int sq = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            Position from = Position.of(sq);
+            List<Position> legal = game.legalMovesFrom(from);
+            if (!legal.isEmpty()) return new Position[] { from, legal.get(0) };
+        }
+        throw new IllegalStateException("No legal move in benchmark position");
+    }
+}
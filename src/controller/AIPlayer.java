@@ -0,0 +1,97 @@
+package controller;
+
+import engine.EvalCache;
+import engine.MoveOrdering;
+import engine.ParallelSearch;
+import engine.Search;
+import engine.TranspositionTable;
+import model.board.PackedMove;
+import model.board.Position;
+
+/**
+ * Computer player used by the GUI. Each difficulty maps to a depth cap and a
+ * per-move time budget, so response latency is bounded whatever the position.
+ * Every difficulty uses the classical evaluation; the neural one (NNUE) is
+ * opt-in with -Dchess.search.nnue=true (see {@link Search.Options}).
+ */
+public final class AIPlayer {
+
+    public enum Difficulty {
+        EASY(2, 300),
+        MEDIUM(5, 1000),
+        HARD(64, 3000);
+
+        private final int maxDepth;
+        private final long timeBudgetMillis;
+
+        Difficulty(int maxDepth, long timeBudgetMillis) {
+            this.maxDepth = maxDepth;
+            this.timeBudgetMillis = timeBudgetMillis;
+        }
+
+        public int maxDepth() { return maxDepth; }
+        public long timeBudgetMillis() { return timeBudgetMillis; }
+    }
+
+    /** Move chosen by the engine (promotion is null for non-promotions). */
+    public static final class Move {
+        public final Position from;
+        public final Position to;
+        public final Character promotion;
+
+        public Move(Position from, Position to, Character promotion) {
+            this.from = from;
+            this.to = to;
+            this.promotion = promotion;
+        }
+
+        @Override
+        public String toString() {
+            return "" + from + to + (promotion == null ? "" : promotion);
+        }
+    }
+
+    public static final int DEFAULT_HASH_MB = 64;
+
+    // Shared across moves so later searches reuse earlier results
+    private static final TranspositionTable TABLE = new TranspositionTable(DEFAULT_HASH_MB);
+    private static final MoveOrdering ORDERING = new MoveOrdering();
+    // Static evaluations, shared the same way (the evaluation is fixed for the JVM's lifetime)
+    private static final EvalCache EVALS = new EvalCache();
+
+    // Search threads (Lazy SMP); 1 = single-threaded. Override with -Dchess.threads=N
+    private static int threads = Math.max(1, Integer.getInteger("chess.threads", 1));
+
+    private AIPlayer() { }
+
+    /** Number of search threads used by {@link #findBestMove}. */
+    public static synchronized void setThreads(int count) {
+        threads = Math.max(1, count);
+    }
+
+    public static synchronized int threads() {
+        return threads;
+    }
+
+    /** Resizes (and clears) the transposition table. */
+    public static synchronized void setHashSizeMb(int megabytes) {
+        TABLE.resize(megabytes);
+    }
+
+    /**
+     * Best move for the side to move, or null if the game is over.
+     * Every search thread works on a private snapshot, so {@code game} is never touched.
+     */
+    public static synchronized Move findBestMove(Game game, Difficulty difficulty) {
+        if (game.isGameOver()) return null;
+
+        TABLE.newSearch();
+        Search.Result r = ParallelSearch.search(game, TABLE, EVALS, ORDERING, Search.Options.DEFAULT, threads,
+                difficulty.maxDepth(), difficulty.timeBudgetMillis());
+        if (r.move() == Search.NO_MOVE) return null;
+
+        int m = r.move();
+        return new Move(Position.of(PackedMove.from(m)), Position.of(PackedMove.to(m)),
+                PackedMove.promotionChar(m));
+    }
+}
@@ -1,10 +1,20 @@
 package controller;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import model.board.Attacks;
 import model.board.Board;
+import model.board.MoveList;
+import model.board.PackedMove;
 import model.board.Position;
+import model.board.Zobrist;
 import model.pieces.*;
 
 public class Game {
@@ -16,12 +26,87 @@ public class Game {
     // Square where an en-passant capture may land (the empty square)
     private Position enPassantTarget = null;
 
+    // Castling rights bits
+    public static final int CASTLE_WHITE_KING = 1;
+    public static final int CASTLE_WHITE_QUEEN = 2;
+    public static final int CASTLE_BLACK_KING = 4;
+    public static final int CASTLE_BLACK_QUEEN = 8;
+
+    // Rights still available; a move from or to a square clears the bits of CASTLE_KEEP[sq]
+    // (king squares clear both of that side, corner squares the matching rook's)
+    private int castlingRights = 0;
+    private static final int[] CASTLE_KEEP = new int[64];
+    static {
+        Arrays.fill(CASTLE_KEEP, 15);
+        CASTLE_KEEP[Board.square(7, 4)] = 15 & ~(CASTLE_WHITE_KING | CASTLE_WHITE_QUEEN);
+        CASTLE_KEEP[Board.square(7, 7)] = 15 & ~CASTLE_WHITE_KING;
+        CASTLE_KEEP[Board.square(7, 0)] = 15 & ~CASTLE_WHITE_QUEEN;
+        CASTLE_KEEP[Board.square(0, 4)] = 15 & ~(CASTLE_BLACK_KING | CASTLE_BLACK_QUEEN);
+        CASTLE_KEEP[Board.square(0, 7)] = 15 & ~CASTLE_BLACK_KING;
+        CASTLE_KEEP[Board.square(0, 0)] = 15 & ~CASTLE_BLACK_QUEEN;
+    }
+
+    // Zobrist part for side to move, castling rights and en passant;
+    // the piece-square part is kept by Board (see zobristKey())
+    private long stateKey = 0L;
+
     private final List<String> history = new ArrayList<>();
 
+    // Undo record for makeMove/unmakeMove; slots are reused so search lines don't allocate
+    private static final class Undo {
+        Position from, to;
+        Piece moved;            // piece that left 'from' (the pawn, for promotions)
+        Piece captured;         // captured piece or null
+        Position capturedAt;    // differs from 'to' on en passant
+        Position prevEnPassant;
+        int prevCastlingRights;
+        long prevStateKey;
+        Piece castleRook;       // rook relocated by castling or null
+        Position rookFrom, rookTo;
+    }
+
+    private Undo[] undoStack = new Undo[64];
+    private int undoTop = 0;
+
+    // Legal moves of the side to move, generated once after each game move and
+    // reused by legalMovesFrom/isCheckmate until the position changes
+    private final MoveList turnMoves = new MoveList();
+    private boolean turnMovesValid = false;
+
+    // Scratch list for pseudoLegalMove (one piece's moves to a single square)
+    private final MoveList probeMoves = new MoveList(8);
+
+    // Promotion ranks: row 0 for white pawns, row 7 for black
+    private static final long RANK_8 = 0xFFL;
+    private static final long RANK_1 = 0xFFL << 56;
+
+    // Static exchange evaluation: piece values (PAWN..KING, same scale as engine.Evaluator;
+    // the king only has to outweigh everything else) and the swap list scratch buffer
+    private static final int[] SEE_VALUE = {100, 320, 330, 500, 900, 20_000};
+    private final int[] seeGain = new int[34];
+
+    // Legal destinations by origin square, tagged with the Zobrist key of the position
+    // they belong to, so a stale map (or a late background result) is never served
+    private record LegalMoveMap(long key, Map<Position, List<Position>> moves) { }
+    private volatile LegalMoveMap legalMoveMap;
+
+    // Background precomputation of legalMoveMap (see precomputeLegalMovesAsync)
+    private static final ExecutorService PRECOMPUTE = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "legal-moves");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Board keeps incremental per-square attack counts (-Dchess.attackMaps=true or setAttackMaps)
+    private boolean attackMaps = Boolean.getBoolean("chess.attackMaps");
+
     // Public ctor (starts a fresh game)
     public Game() {
         this.board = new Board();
+        this.castlingRights = 15;
         setupPieces();
+        this.board.setAttackTracking(attackMaps);
+        this.stateKey = computeStateKey();
     }
 
     // Private ctor used for snapshots (no setup)
@@ -33,6 +118,21 @@ public class Game {
     public boolean isGameOver() { return gameOver; }
     public List<String> history() { return Collections.unmodifiableList(history); }
 
+    /** 64-bit Zobrist key of the current position (pieces, side, castling, en passant). */
+    public long zobristKey() { return board.zobristKey() ^ stateKey; }
+
+    /**
+     * Turns the board's incremental attack maps on or off (kept across newGame/loadFen
+     * and snapshots). With them, attack and check queries read a counter instead of
+     * probing the attack tables, at the price of extra work in every board update.
+     */
+    public void setAttackMaps(boolean enabled) {
+        this.attackMaps = enabled;
+        board.setAttackTracking(enabled);
+    }
+
+    public boolean attackMaps() { return attackMaps; }
+
     // --------- New game ----------
     public void newGame() {
         this.board = new Board();
@@ -40,19 +140,391 @@ public class Game {
         this.gameOver = false;
         this.enPassantTarget = null;
         this.history.clear();
+        this.undoTop = 0;
+        this.turnMovesValid = false;
+        this.castlingRights = 15;
         setupPieces();
+        this.board.setAttackTracking(attackMaps);
+        this.stateKey = computeStateKey();
+    }
+
+    // --------- Setup from FEN ----------
+    /**
+     * Replaces the current position with the one described by a FEN string.
+     * Castling rights whose king or rook is not on its home square are dropped.
+     * Move clocks are accepted but ignored.
+     */
+    public void loadFen(String fen) {
+        String[] f = fen.trim().split("\\s+");
+        if (f.length < 2) throw new IllegalArgumentException("Invalid FEN: " + fen);
+
+        String[] rows = f[0].split("/");
+        if (rows.length != 8) throw new IllegalArgumentException("Invalid FEN placement: " + f[0]);
+
+        Board b = new Board();
+        for (int row = 0; row < 8; row++) {
+            int col = 0;
+            for (char ch : rows[row].toCharArray()) {
+                if (Character.isDigit(ch)) {
+                    col += ch - '0';
+                    continue;
+                }
+                if (col > 7) throw new IllegalArgumentException("Invalid FEN row: " + rows[row]);
+                Piece pc;
+                try {
+                    pc = Piece.fromSymbol(ch);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid FEN piece: " + ch);
+                }
+                b.placePiece(pc, Position.of(row, col++));
+            }
+            if (col != 8) throw new IllegalArgumentException("Invalid FEN row: " + rows[row]);
+        }
+
+        // Castling rights, kept only where king and rook are on their home squares
+        String castling = f.length > 2 ? f[2] : "-";
+        int rights = 0;
+        if (castling.indexOf('K') >= 0 && hasCastlingPieces(b, 7, 7, true)) rights |= CASTLE_WHITE_KING;
+        if (castling.indexOf('Q') >= 0 && hasCastlingPieces(b, 7, 0, true)) rights |= CASTLE_WHITE_QUEEN;
+        if (castling.indexOf('k') >= 0 && hasCastlingPieces(b, 0, 7, false)) rights |= CASTLE_BLACK_KING;
+        if (castling.indexOf('q') >= 0 && hasCastlingPieces(b, 0, 0, false)) rights |= CASTLE_BLACK_QUEEN;
+
+        Position ep = null;
+        if (f.length > 3 && !f[3].equals("-")) {
+            String sq = f[3];
+            if (sq.length() != 2) throw new IllegalArgumentException("Invalid FEN en passant: " + sq);
+            ep = Position.of('8' - sq.charAt(1), sq.charAt(0) - 'a');
+            if (ep == null) throw new IllegalArgumentException("Invalid FEN en passant: " + sq);
+        }
+
+        b.setAttackTracking(attackMaps);
+        this.board = b;
+        this.castlingRights = rights;
+        this.whiteToMove = f[1].equals("w");
+        this.gameOver = false;
+        this.enPassantTarget = ep;
+        this.history.clear();
+        this.undoTop = 0;
+        this.turnMovesValid = false;
+        this.stateKey = computeStateKey();
+    }
+
+    private static boolean hasCastlingPieces(Board b, int row, int rookCol, boolean white) {
+        return b.get(Board.square(row, 4)) == Piece.of(Piece.KING, white)
+                && b.get(Board.square(row, rookCol)) == Piece.of(Piece.ROOK, white);
     }
 
     // --------- Query legal moves ----------
-    // Full legality including specials and "king safety"
+    // Full legality including specials and "king safety"; the list is read-only
     public List<Position> legalMovesFrom(Position from) {
         return legalMovesFromWithSpecials(from);
     }
 
+    /**
+     * Read-only map from each piece of the side to move to its legal destinations
+     * (pieces without moves are absent). Built once per position from the side's
+     * move list and reused by {@link #legalMovesFrom} until the next move.
+     */
+    public Map<Position, List<Position>> legalMoveMap() {
+        long key = zobristKey();
+        LegalMoveMap cached = legalMoveMap;
+        if (cached != null && cached.key == key) return cached.moves;
+
+        Map<Position, List<Position>> moves = groupBySquare(turnMoves());
+        legalMoveMap = new LegalMoveMap(key, moves);
+        return moves;
+    }
+
+    /**
+     * Builds {@link #legalMoveMap()} for the current position on a background thread,
+     * working on a snapshot, so a later click finds it ready. Must be called from the
+     * thread that owns this game (the snapshot is taken before returning). When the
+     * legal moves are already generated (as they are after {@link #move}), the map
+     * is built from them right away instead.
+     */
+    public CompletableFuture<Map<Position, List<Position>>> precomputeLegalMovesAsync() {
+        long key = zobristKey();
+        LegalMoveMap cached = legalMoveMap;
+        if (cached != null && cached.key == key) return CompletableFuture.completedFuture(cached.moves);
+        if (turnMovesValid) return CompletableFuture.completedFuture(legalMoveMap());
+
+        Game snapshot = snapshotPosition();
+        return CompletableFuture.supplyAsync(() -> {
+            Map<Position, List<Position>> moves = groupBySquare(snapshot.turnMoves());
+            LegalMoveMap current = legalMoveMap;
+            if (current == null || current.key != key) legalMoveMap = new LegalMoveMap(key, moves);
+            return moves;
+        }, PRECOMPUTE);
+    }
+
+    // One read-only destination list per origin square; under-promotions share the queen's square
+    private static Map<Position, List<Position>> groupBySquare(MoveList moves) {
+        Map<Position, List<Position>> bySquare = new HashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            int m = moves.get(i);
+            int promo = PackedMove.promotion(m);
+            if (promo != 0 && promo != PackedMove.PROMO_QUEEN) continue;
+            bySquare.computeIfAbsent(Position.of(PackedMove.from(m)), k -> new ArrayList<>())
+                    .add(Position.of(PackedMove.to(m)));
+        }
+        bySquare.replaceAll((from, to) -> List.copyOf(to));
+        return Map.copyOf(bySquare);
+    }
+
+    /**
+     * Fills {@code out} (cleared first) with every legal move of the side to move,
+     * packed as ints (see {@link PackedMove}) with promotions expanded to Q/R/B/N.
+     * Does not allocate, so search and perft can keep one list per ply.
+     *
+     * Legality comes from masks computed once per position instead of trial moves:
+     * the pieces giving check (only king moves survive a double check; otherwise a
+     * move must capture the checker or block its ray) and the absolutely pinned
+     * pieces, which may only move along the line through their king.
+     */
+    public void generateLegalMoves(MoveList out) {
+        out.clear();
+        boolean us = whiteToMove;
+        int king = board.kingSquare(us);
+        if (king < 0) return; // no king: invalid position, treated like inCheck() does
+
+        long occ = board.occupancy();
+        boolean maps = board.isAttackTracking();
+        long checkers = maps && board.attackCount(!us, king) == 0 ? 0L : attackersTo(king, !us, occ);
+        long checkMask = checkers == 0 ? -1L
+                : (checkers & (checkers - 1)) != 0 ? 0L
+                : checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+        long pinned = pinnedPieces(king, us, occ);
+        // >>> NUNCA permitir "capturar" Rei inimigo
+        long targets = ~board.bitboard(Piece.KING, !us);
+
+        long own = board.occupancy(us);
+        while (own != 0) {
+            int sq = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            Piece p = board.get(sq);
+            int start = out.size();
+            p.generateMoves(board, sq, out);
+
+            if (sq == king) {
+                keepSafeKingMoves(out, start, king, checkers != 0);
+                if (checkers == 0) addCastles(out, sq, us);
+                continue;
+            }
+
+            long allowed = checkMask & targets;
+            if ((pinned & Board.bit(sq)) != 0) allowed &= Attacks.line(king, sq);
+            keepTargets(out, start, allowed);
+
+            if (p instanceof Pawn && enPassantTarget != null) addEnPassant(out, sq, king, occ);
+        }
+    }
+
+    // Enemy pieces (of side 'byWhite') attacking 'sq' with the given occupancy
+    private long attackersTo(int sq, boolean byWhite, long occ) {
+        long queens = board.bitboard(Piece.QUEEN, byWhite);
+        return (Attacks.pawn(sq, !byWhite) & board.bitboard(Piece.PAWN, byWhite))
+                | (Attacks.knight(sq) & board.bitboard(Piece.KNIGHT, byWhite))
+                | (Attacks.king(sq) & board.bitboard(Piece.KING, byWhite))
+                | (Attacks.bishop(sq, occ) & (board.bitboard(Piece.BISHOP, byWhite) | queens))
+                | (Attacks.rook(sq, occ) & (board.bitboard(Piece.ROOK, byWhite) | queens));
+    }
+
+    // Own pieces that are the only blocker between our king and an enemy slider
+    private long pinnedPieces(int king, boolean us, long occ) {
+        long theirs = board.occupancy(!us);
+        long queens = board.bitboard(Piece.QUEEN, !us);
+        long snipers = (Attacks.rook(king, theirs) & (board.bitboard(Piece.ROOK, !us) | queens))
+                | (Attacks.bishop(king, theirs) & (board.bitboard(Piece.BISHOP, !us) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            int s = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.between(king, s) & occ;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) pinned |= blockers & board.occupancy(us);
+        }
+        return pinned;
+    }
+
+    // Keeps the moves from index 'start' whose destination is in 'allowed'
+    private static void keepTargets(MoveList moves, int start, long allowed) {
+        int kept = start;
+        for (int i = start; i < moves.size(); i++) {
+            int m = moves.get(i);
+            if ((allowed & Board.bit(PackedMove.to(m))) != 0) moves.set(kept++, m);
+        }
+        moves.truncate(kept);
+    }
+
+    // King steps must land on an unattacked square; the king itself is lifted from
+    // the occupancy so a slider checking along the ray still covers the square behind
+    private void keepSafeKingMoves(MoveList moves, int start, int king, boolean inCheck) {
+        long occWithoutKing = board.occupancy() & ~Board.bit(king);
+        long enemyKing = board.bitboard(Piece.KING, !whiteToMove);
+        boolean maps = board.isAttackTracking();
+        int kept = start;
+        for (int i = start; i < moves.size(); i++) {
+            int m = moves.get(i);
+            int to = PackedMove.to(m);
+            if ((enemyKing & Board.bit(to)) != 0) continue;
+            if (maps) {
+                // Attacked with the king in place stays attacked without it; the reverse
+                // (x-ray through the king) only happens along a checking slider's line
+                if (board.attackCount(!whiteToMove, to) != 0) continue;
+                if (!inCheck) {
+                    moves.set(kept++, m);
+                    continue;
+                }
+            }
+            if (attackersTo(to, !whiteToMove, occWithoutKing) == 0) moves.set(kept++, m);
+        }
+        moves.truncate(kept);
+    }
+
+    // Castling (not out of check, which the caller knows; path and pass squares checked by canCastle)
+    private void addCastles(MoveList out, int sq, boolean us) {
+        if ((castlingRights & (us ? CASTLE_WHITE_KING | CASTLE_WHITE_QUEEN
+                : CASTLE_BLACK_KING | CASTLE_BLACK_QUEEN)) == 0) return;
+        int row = sq >>> 3;
+        // Short castle to g-file (col 6)
+        if (canCastle(row, 4, 7, 5, 6, us)) out.add(PackedMove.of(sq, Board.square(row, 6), PackedMove.CASTLE));
+        // Long castle to c-file (col 2)
+        if (canCastle(row, 4, 0, 3, 2, us)) out.add(PackedMove.of(sq, Board.square(row, 2), PackedMove.CASTLE));
+    }
+
+    // En passant removes two pawns from one rank, so it is checked on the resulting
+    // occupancy (covers the pinned-pawn and "rank discovered check" cases)
+    private void addEnPassant(MoveList out, int sq, int king, long occ) {
+        int move = enPassantMove(sq);
+        if (move != PackedMove.NONE && leavesKingSafe(move, king, occ)) out.add(move);
+    }
+
+    // En passant capture available to the pawn on 'sq' (pseudo-legal), or NONE
+    private int enPassantMove(int sq) {
+        int dir = whiteToMove ? -1 : 1; // white pawns go up (row--), so attack is -1
+        int row = sq >>> 3, col = sq & 7;
+        if (row + dir != enPassantTarget.getRow() || Math.abs(col - enPassantTarget.getColumn()) != 1) return PackedMove.NONE;
+
+        // Ensure there is an enemy pawn on the square behind target
+        int victim = Board.square(row, enPassantTarget.getColumn());
+        if ((board.bitboard(Piece.PAWN, !whiteToMove) & Board.bit(victim)) == 0) return PackedMove.NONE;
+        return PackedMove.of(sq, enPassantTarget.index(), PackedMove.EN_PASSANT | PackedMove.CAPTURE);
+    }
+
+    // A non-king move is legal if no enemy piece, other than the one it captures,
+    // attacks our king once the moving piece has left 'from' and landed on 'to'
+    private boolean leavesKingSafe(int move, int king, long occ) {
+        int from = PackedMove.from(move), to = PackedMove.to(move);
+        long captured = PackedMove.isEnPassant(move)
+                ? Board.bit(Board.square(from >>> 3, to & 7)) : Board.bit(to);
+        long after = (occ ^ Board.bit(from) ^ captured) | Board.bit(to);
+        return (attackersTo(king, !whiteToMove, after) & ~captured) == 0;
+    }
+
+    // --------- Staged (pseudo-legal) generation ----------
+    /**
+     * Fills {@code out} (cleared first) with the pseudo-legal captures and
+     * promotions of the side to move, en passant included. Unlike
+     * {@link #generateLegalMoves}, these may leave the own king in check: a search
+     * tests them one at a time with {@link #isLegal} as it tries them, so a node
+     * that cuts off on its first capture never generates or checks the rest.
+     */
+    public void generateCaptures(MoveList out) {
+        out.clear();
+        boolean us = whiteToMove;
+        long enemies = board.occupancy(!us) & ~board.bitboard(Piece.KING, !us);
+        long promotionRank = us ? RANK_8 : RANK_1;
+
+        long own = board.occupancy(us);
+        while (own != 0) {
+            int sq = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            Piece p = board.get(sq);
+            if (p instanceof Pawn) {
+                p.generateMoves(board, sq, enemies | promotionRank, out);
+                if (enPassantTarget != null) {
+                    int ep = enPassantMove(sq);
+                    if (ep != PackedMove.NONE) out.add(ep);
+                }
+            } else {
+                p.generateMoves(board, sq, enemies, out);
+            }
+        }
+    }
+
+    /**
+     * Fills {@code out} (cleared first) with the pseudo-legal quiet moves of the
+     * side to move: everything {@link #generateCaptures} leaves out, castling
+     * included. Test each move with {@link #isLegal} before playing it.
+     */
+    public void generateQuiets(MoveList out) {
+        out.clear();
+        boolean us = whiteToMove;
+        long empty = ~board.occupancy();
+        long pawnTargets = empty & ~(us ? RANK_8 : RANK_1);
+
+        long own = board.occupancy(us);
+        while (own != 0) {
+            int sq = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            Piece p = board.get(sq);
+            p.generateMoves(board, sq, p instanceof Pawn ? pawnTargets : empty, out);
+            if (p instanceof King && !isSquareAttacked(sq, us)) addCastles(out, sq, us);
+        }
+    }
+
+    /**
+     * True if a pseudo-legal move of the side to move (from {@link #generateCaptures},
+     * {@link #generateQuiets} or {@link #pseudoLegalMove}) does not leave its own
+     * king in check. Castling is fully checked when generated.
+     */
+    public boolean isLegal(int move) {
+        int king = board.kingSquare(whiteToMove);
+        if (king < 0) return false;
+        int from = PackedMove.from(move);
+        if (from != king) return leavesKingSafe(move, king, board.occupancy());
+        if (PackedMove.isCastle(move)) return true;
+        return attackersTo(PackedMove.to(move), !whiteToMove, board.occupancy() & ~Board.bit(king)) == 0;
+    }
+
+    /**
+     * The pseudo-legal move of the side to move with the same origin, destination
+     * and promotion as {@code move} (flags recomputed for this position), or
+     * {@link PackedMove#NONE}. Used to re-validate moves remembered from other
+     * positions, such as a transposition-table or killer move, which may have lost
+     * their flags or be impossible here.
+     */
+    public int pseudoLegalMove(int move) {
+        int from = PackedMove.from(move), to = PackedMove.to(move);
+        Piece p = board.get(from);
+        if (p == null || p.isWhite() != whiteToMove) return PackedMove.NONE;
+
+        probeMoves.clear();
+        if (p instanceof King && Math.abs((to & 7) - (from & 7)) == 2) {
+            if (!isSquareAttacked(from, whiteToMove)) addCastles(probeMoves, from, whiteToMove);
+        } else if (p instanceof Pawn && enPassantTarget != null && to == enPassantTarget.index()) {
+            int ep = enPassantMove(from);
+            if (ep != PackedMove.NONE) probeMoves.add(ep);
+        } else {
+            p.generateMoves(board, from, Board.bit(to) & ~board.bitboard(Piece.KING, !whiteToMove), probeMoves);
+        }
+        int i = probeMoves.indexOf(move);
+        return i < 0 ? PackedMove.NONE : probeMoves.get(i);
+    }
+
+    /** Plays a packed move from {@link #generateLegalMoves}; see {@link #makeMove(Position, Position, Character)}. */
+    public void makeMove(int move) {
+        makeMove(Position.of(PackedMove.from(move)), Position.of(PackedMove.to(move)),
+                PackedMove.promotionChar(move));
+    }
+
     public boolean isPromotion(Position from, Position to) {
         Piece p = board.get(from);
         if (!(p instanceof Pawn)) return false;
-        return p.isWhite() ? to.getRow() == 0 : to.getRow() == 7;
+        return isPromotionRow(p.isWhite(), to);
+    }
+
+    private static boolean isPromotionRow(boolean white, Position to) {
+        return white ? to.getRow() == 0 : to.getRow() == 7;
     }
 
     // --------- Make a move (only if legal) ----------
@@ -73,346 +545,343 @@ public class Game {
         Piece capturedBefore = board.get(to); // for SAN-ish history
         boolean targetIsKing = (capturedBefore instanceof King);
 
-        // ------- Castling (already validated in legal moves) -------
-        if (isKing && dCol == 2) {
-            int row = from.getRow();
-            // Move king
-            board.set(to, p);
-            board.set(from, null);
-            p.setMoved(true);
+        boolean diagonal = from.getColumn() != to.getColumn();
+        boolean isEnPassant = isPawn && diagonal && capturedBefore == null && to.equals(enPassantTarget);
+        boolean isPromo = isPawn && isPromotion(from, to);
 
-            String san;
-            if (to.getColumn() == 6) {
-                // Short castle: rook h->f
-                Piece rook = board.get(new Position(row, 7));
-                board.set(new Position(row, 5), rook);
-                board.set(new Position(row, 7), null);
-                if (rook != null) rook.setMoved(true);
-                san = "O-O";
-            } else {
-                // Long castle: rook a->d
-                Piece rook = board.get(new Position(row, 0));
-                board.set(new Position(row, 3), rook);
-                board.set(new Position(row, 0), null);
-                if (rook != null) rook.setMoved(true);
-                san = "O-O-O";
-            }
+        makeMove(from, to, promotion);
+        undoTop--; // game moves are not undoable; only search lines use the undo stack
 
-            enPassantTarget = null;
-            // Switch side
-            whiteToMove = !whiteToMove;
-
-            // annotate + or #
-            if (isCheckmate(whiteToMove)) {
-                san += "#";
-                gameOver = true;
-            } else if (inCheck(whiteToMove)) {
-                san += "+";
-            }
-            addHistory(san);
+        String moveStr;
+        if (isKing && dCol == 2) {
+            moveStr = (to.getColumn() == 6) ? "O-O" : "O-O-O";
+        } else if (isEnPassant) {
+            moveStr = coord(from) + "x" + coord(to) + " e.p.";
+        } else {
+            moveStr = coord(from) + (capturedBefore != null ? "x" : "-") + coord(to);
+            if (isPromo) moveStr += "=" + board.get(to).getSymbol();
+        }
 
-            if (!gameOver) checkGameEnd();
+        // >>> segurança: se capturamos um Rei (não deveria acontecer), termina imediatamente
+        if (targetIsKing) {
+            addHistory(moveStr + "#");
+            gameOver = true;
             return;
         }
 
-        // ------- En Passant (already validated in legal moves) -------
-        boolean diagonal = from.getColumn() != to.getColumn();
-        boolean toIsEmpty = board.get(to) == null;
-        boolean isEnPassant = isPawn && diagonal && toIsEmpty && to.equals(enPassantTarget);
+        // One legal-move pass for the side now to move gives check, mate and stalemate
+        // (and serves the following legalMovesFrom queries)
+        boolean check = inCheck(whiteToMove);
+        boolean noMoves = turnMoves().isEmpty();
 
-        String moveStr;
+        // annotate + or #
+        if (check && noMoves) {
+            moveStr += "#";
+            gameOver = true;
+        } else if (check) {
+            moveStr += "+";
+        }
 
-        if (isEnPassant) {
-            // Move pawn to target
-            board.set(to, p);
-            board.set(from, null);
-            // Remove the pawn that moved two squares last turn (victim behind target)
-            int dir = p.isWhite() ? 1 : -1;
-            Position victim = new Position(to.getRow() + dir, to.getColumn());
-            board.set(victim, null);
-            p.setMoved(true);
-            moveStr = coord(from) + "x" + coord(to) + " e.p.";
-            enPassantTarget = null;
+        addHistory(moveStr);
+        if (!check && noMoves) {
+            gameOver = true;
+            addHistory("Draw: stalemate");
+        }
+    }
 
-            // Switch side
-            whiteToMove = !whiteToMove;
+    // --------- Make / unmake (in place, no legality checks) ----------
 
-            // annotate + or #
-            if (isCheckmate(whiteToMove)) {
-                moveStr += "#";
-                gameOver = true;
-            } else if (inCheck(whiteToMove)) {
-                moveStr += "+";
-            }
-            addHistory(moveStr);
+    /**
+     * Plays a move on this game's board in place, including castling, en passant
+     * and promotion (auto-queen if promotion is null), updates the en-passant target
+     * and switches side. The move must already be known to be legal.
+     * Every call must be paired with {@link #unmakeMove()}.
+     */
+    public void makeMove(Position from, Position to, Character promotion) {
+        Piece p = board.get(from);
+        turnMovesValid = false;
+        Undo u = pushUndo();
 
-            if (!gameOver) checkGameEnd();
-            return;
+        boolean isPawn = p instanceof Pawn;
+        u.from = from;
+        u.to = to;
+        u.moved = p;
+        u.prevEnPassant = enPassantTarget;
+        u.prevCastlingRights = castlingRights;
+        u.prevStateKey = stateKey;
+        u.castleRook = null;
+        int rightsBefore = castlingRights;
+
+        // Captured piece (for en passant the victim sits behind the target square)
+        Position capturedAt = to;
+        if (isPawn && from.getColumn() != to.getColumn() && board.get(to) == null && to.equals(enPassantTarget)) {
+            capturedAt = Position.of(from.getRow(), to.getColumn());
         }
+        u.capturedAt = capturedAt;
+        u.captured = board.remove(capturedAt);
 
-        // ------- Promotion (auto-queen if promotion is null) -------
-        if (isPawn && isPromotion(from, to)) {
+        board.set(from, null);
+        if (isPawn && isPromotionRow(p.isWhite(), to)) {
             char ch = (promotion == null) ? 'Q' : Character.toUpperCase(promotion);
-            Piece np = switch (ch) {
-                case 'R' -> new Rook(board, p.isWhite());
-                case 'B' -> new Bishop(board, p.isWhite());
-                case 'N' -> new Knight(board, p.isWhite());
-                default  -> new Queen(board, p.isWhite());
+            int type = switch (ch) {
+                case 'R' -> Piece.ROOK;
+                case 'B' -> Piece.BISHOP;
+                case 'N' -> Piece.KNIGHT;
+                default  -> Piece.QUEEN;
             };
-            np.setMoved(true);
-            board.set(from, null);
-            board.set(to, np);
-
-            // >>> segurança: se, por algum motivo, havia um Rei na casa alvo (não deveria), termina
-            if (targetIsKing) {
-                String san = coord(from) + "x" + coord(to) + "=" + np.getSymbol() + "#";
-                addHistory(san);
-                gameOver = true;
-                return;
-            }
-
-            moveStr = coord(from) + (capturedBefore != null ? "x" : "-") + coord(to) + "=" + np.getSymbol();
+            board.set(to, Piece.of(type, p.isWhite()));
         } else {
-            // Normal move / capture
             board.set(to, p);
-            board.set(from, null);
-            p.setMoved(true);
-
-            // >>> segurança: se capturamos um Rei (não deveria acontecer), termina imediatamente
-            if (targetIsKing) {
-                String san = coord(from) + "x" + coord(to) + "#";
-                addHistory(san);
-                gameOver = true;
-                return;
-            }
+        }
 
-            moveStr = coord(from) + (capturedBefore != null ? "x" : "-") + coord(to);
+        // Castling: king moves two columns, rook jumps over it
+        if (p instanceof King && Math.abs(to.getColumn() - from.getColumn()) == 2) {
+            int row = to.getRow();
+            boolean shortSide = to.getColumn() == 6;
+            Position rookFrom = Position.of(row, shortSide ? 7 : 0);
+            Position rookTo = Position.of(row, shortSide ? 5 : 3);
+            Piece rook = board.remove(rookFrom);
+            if (rook != null) {
+                u.castleRook = rook;
+                u.rookFrom = rookFrom;
+                u.rookTo = rookTo;
+                board.set(rookTo, rook);
+            }
         }
 
-        // ------- En-passant availability after a double pawn push -------
+        // En-passant availability after a double pawn push
+        if (enPassantTarget != null) stateKey ^= Zobrist.enPassant(enPassantTarget.getColumn());
         if (isPawn && Math.abs(to.getRow() - from.getRow()) == 2) {
-            int mid = (to.getRow() + from.getRow()) / 2;
-            enPassantTarget = new Position(mid, from.getColumn());
+            enPassantTarget = Position.of((to.getRow() + from.getRow()) / 2, from.getColumn());
+            stateKey ^= Zobrist.enPassant(from.getColumn());
         } else {
             enPassantTarget = null;
         }
 
-        // Switch side
+        // Moving the king or a rook, or capturing on a rook's home square, costs rights
+        castlingRights &= CASTLE_KEEP[from.index()] & CASTLE_KEEP[to.index()];
+        stateKey ^= Zobrist.castling(rightsBefore) ^ Zobrist.castling(castlingRights) ^ Zobrist.SIDE;
         whiteToMove = !whiteToMove;
+    }
 
-        // annotate + or #
-        if (isCheckmate(whiteToMove)) {
-            moveStr += "#";
-            gameOver = true;
-        } else if (inCheck(whiteToMove)) {
-            moveStr += "+";
+    /**
+     * Passes the turn without moving (a "null move"), for null-move pruning in a
+     * search: only the side to move and en passant change. Undone by
+     * {@link #unmakeNullMove}. Must not be played in check.
+     */
+    public void makeNullMove() {
+        turnMovesValid = false;
+        Undo u = pushUndo();
+        u.prevEnPassant = enPassantTarget;
+        u.prevStateKey = stateKey;
+
+        if (enPassantTarget != null) stateKey ^= Zobrist.enPassant(enPassantTarget.getColumn());
+        enPassantTarget = null;
+        stateKey ^= Zobrist.SIDE;
+        whiteToMove = !whiteToMove;
+    }
+
+    /** Reverts the last {@link #makeNullMove} call. */
+    public void unmakeNullMove() {
+        Undo u = undoStack[--undoTop];
+        turnMovesValid = false;
+        whiteToMove = !whiteToMove;
+        enPassantTarget = u.prevEnPassant;
+        stateKey = u.prevStateKey;
+    }
+
+    // Next free undo record (the stack grows on demand; records are reused)
+    private Undo pushUndo() {
+        if (undoTop == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoTop * 2);
         }
+        Undo u = undoStack[undoTop];
+        if (u == null) u = undoStack[undoTop] = new Undo();
+        undoTop++;
+        return u;
+    }
 
-        addHistory(moveStr);
-        if (!gameOver) checkGameEnd();
+    /** Reverts the last {@link #makeMove} call. */
+    public void unmakeMove() {
+        Undo u = undoStack[--undoTop];
+        turnMovesValid = false;
+        whiteToMove = !whiteToMove;
+        enPassantTarget = u.prevEnPassant;
+        castlingRights = u.prevCastlingRights;
+        stateKey = u.prevStateKey;
+
+        if (u.castleRook != null) {
+            board.set(u.rookTo, null);
+            board.set(u.rookFrom, u.castleRook);
+        }
+
+        board.set(u.to, null);
+        board.set(u.from, u.moved);
+        if (u.captured != null) board.set(u.capturedAt, u.captured);
+
+        u.moved = u.captured = u.castleRook = null;
     }
 
     // --------- Checks / mates ----------
     public boolean inCheck(boolean whiteSide) {
-        Position k = findKing(whiteSide);
+        int k = board.kingSquare(whiteSide);
         // Se o rei não existe no tabuleiro, trate como "em xeque" (estado inválido/terminal).
-        if (k == null) return true;
+        if (k < 0) return true;
         return isSquareAttacked(k, whiteSide);
     }
 
+    /**
+     * True if {@code whiteSide} is the side to move, is in check and has no legal
+     * move. Only the side to move can be mated: the other side being in check is
+     * an illegal position (its king could be captured), so for it this is false.
+     */
     public boolean isCheckmate(boolean whiteSide) {
-        if (!inCheck(whiteSide)) return false;
-
-        // If the side has any legal move that avoids check, it's not mate
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                Position from = new Position(row, col);
-                Piece piece = board.get(from);
-                if (piece != null && piece.isWhite() == whiteSide) {
-                    for (Position to : legalMovesFromWithSpecials(from)) {
-                        Game g = snapshotShallow();
-                        g.forceMoveNoChecks(from, to);
-                        if (!g.inCheck(whiteSide)) return false;
-                    }
-                }
-            }
-        }
-        return true;
-    }
-
-    private void checkGameEnd() {
-        // Checkmate
-        if (isCheckmate(whiteToMove)) {
-            gameOver = true;
-            addHistory("Checkmate: " + (whiteToMove ? "White" : "Black") + " loses");
-            return;
-        }
+        if (whiteSide != whiteToMove || !inCheck(whiteSide)) return false;
 
-        // Stalemate: no legal moves and not in check
-        if (!inCheck(whiteToMove)) {
-            boolean hasAny = false;
-            for (int r = 0; r < 8 && !hasAny; r++) {
-                for (int c = 0; c < 8 && !hasAny; c++) {
-                    Position from = new Position(r, c);
-                    Piece piece = board.get(from);
-                    if (piece != null && piece.isWhite() == whiteToMove) {
-                        if (!legalMovesFromWithSpecials(from).isEmpty()) {
-                            hasAny = true;
-                        }
-                    }
-                }
-            }
-            if (!hasAny) {
-                gameOver = true;
-                addHistory("Draw: stalemate");
-            }
-        }
+        // Legal moves are already king-safe: any one of them escapes the check
+        return turnMoves().isEmpty();
     }
 
     // --------- Helpers: legality & attack maps ----------
     private List<Position> legalMovesFromWithSpecials(Position from) {
         Piece p = board.get(from);
         if (p == null || p.isWhite() != whiteToMove) return List.of();
+        return legalMoveMap().getOrDefault(from, List.of());
+    }
 
-        List<Position> moves = new ArrayList<>(p.getPossibleMoves());
-
-        // En Passant candidate square
-        if (p instanceof Pawn && enPassantTarget != null) {
-            int dir = p.isWhite() ? -1 : 1; // white pawns go up (row--), so attack is -1
-            if (from.getRow() + dir == enPassantTarget.getRow()
-                    && Math.abs(from.getColumn() - enPassantTarget.getColumn()) == 1) {
-                // Ensure there is an enemy pawn on the square behind target
-                Piece victim = board.get(new Position(enPassantTarget.getRow() - dir, enPassantTarget.getColumn()));
-                if (victim instanceof Pawn && victim.isWhite() != p.isWhite()) {
-                    moves.add(enPassantTarget);
-                }
-            }
-        }
-
-        // Castling candidates (king not moved, not in check, path empty, pass squares not attacked)
-        if (p instanceof King && !p.hasMoved() && !inCheck(p.isWhite())) {
-            int row = from.getRow();
-            // Short castle to g-file (col 6)
-            if (canCastle(row, 4, 7, 5, 6, p.isWhite())) moves.add(new Position(row, 6));
-            // Long castle to c-file (col 2)
-            if (canCastle(row, 4, 0, 3, 2, p.isWhite())) moves.add(new Position(row, 2));
+    // Legal moves of the side to move, generated at most once per position
+    private MoveList turnMoves() {
+        if (!turnMovesValid) {
+            generateLegalMoves(turnMoves);
+            turnMovesValid = true;
         }
-
-        // >>> NUNCA permitir "capturar" Rei inimigo
-        moves.removeIf(to -> {
-            Piece tgt = board.get(to);
-            return (tgt instanceof King) && (tgt.isWhite() != p.isWhite());
-        });
-
-        // Filter out moves que deixam o próprio rei em xeque
-        moves.removeIf(to -> leavesKingInCheck(from, to));
-        return moves;
+        return turnMoves;
     }
 
     private boolean canCastle(int row, int kingCol, int rookCol, int passCol1, int passCol2, boolean whiteSide) {
-        Piece rook = board.get(new Position(row, rookCol));
-        if (!(rook instanceof Rook) || rook.hasMoved()) return false;
+        int right = whiteSide ? (rookCol == 7 ? CASTLE_WHITE_KING : CASTLE_WHITE_QUEEN)
+                : (rookCol == 7 ? CASTLE_BLACK_KING : CASTLE_BLACK_QUEEN);
+        if ((castlingRights & right) == 0) return false;
+        int rookSq = Board.square(row, rookCol);
+        if ((board.bitboard(Piece.ROOK, whiteSide) & Board.bit(rookSq)) == 0) return false;
 
         // Path between king and rook must be empty
-        int step = (rookCol > kingCol) ? 1 : -1;
-        for (int c = kingCol + step; c != rookCol; c += step) {
-            if (board.get(new Position(row, c)) != null) return false;
-        }
+        if ((Attacks.between(Board.square(row, kingCol), rookSq) & board.occupancy()) != 0) return false;
 
         // Squares king passes through (and destination) must not be attacked
-        Position p1 = new Position(row, passCol1);
-        Position p2 = new Position(row, passCol2);
-        if (isSquareAttacked(p1, whiteSide) || isSquareAttacked(p2, whiteSide)) return false;
-
-        return true;
+        return !isSquareAttacked(Board.square(row, passCol1), whiteSide)
+                && !isSquareAttacked(Board.square(row, passCol2), whiteSide);
     }
 
-    private boolean leavesKingInCheck(Position from, Position to) {
-        Piece mover = board.get(from);
-        if (mover == null) return true;
-
-        Game g = snapshotShallow();
-        g.forceMoveNoChecks(from, to);
-        return g.inCheck(mover.isWhite());
+    /**
+     * True se a casa `sq` (0..63) está atacada por QUALQUER peça do lado oposto a
+     * `sideToProtect`: tabelas de peão/cavalo/rei e ataques "magic" de torre/bispo
+     * (ver {@link Attacks}), sem percorrer o tabuleiro; com os mapas de ataque do
+     * Board ligados, basta ler o contador da casa.
+     */
+    private boolean isSquareAttacked(int sq, boolean sideToProtect) {
+        if (board.isAttackTracking()) return board.attackCount(!sideToProtect, sq) != 0;
+        return attackersTo(sq, !sideToProtect, board.occupancy()) != 0;
     }
 
+    // --------- Static exchange evaluation ----------
     /**
-     * True se `sq` está atacada por QUALQUER peça do lado oposto a `sideToProtect`.
-     * Implementa padrões de ataque corretos para peão/cavalo/rei/deslizantes.
+     * Material balance, in centipawns for the side making {@code move}, of the
+     * capture sequence it starts on its destination square, with both sides
+     * always recapturing with their least valuable attacker and free to stop when
+     * going on would lose. Sliders uncovered behind a capturer (x-rays) join in.
+     * Works for quiet moves too: a negative value means the piece is lost there.
+     * Pins and checks are ignored, as usual for SEE.
      */
-    private boolean isSquareAttacked(Position sq, boolean sideToProtect) {
-        int r = sq.getRow(), c = sq.getColumn();
-
-        // 1) Ataques de peão (peão inimigo estaria uma linha "atrás" da sq na direção dele)
-        int dir = sideToProtect ? -1 : 1; // protegendo brancas => peões pretos atacam +1 (descendo)
-        int rp = r - dir;
-        if (rp >= 0 && rp < 8) {
-            if (c - 1 >= 0) {
-                Piece p = board.get(new Position(rp, c - 1));
-                if (p instanceof Pawn && p.isWhite() != sideToProtect) return true;
-            }
-            if (c + 1 < 8) {
-                Piece p = board.get(new Position(rp, c + 1));
-                if (p instanceof Pawn && p.isWhite() != sideToProtect) return true;
-            }
-        }
+    public int see(int move) {
+        int from = PackedMove.from(move), to = PackedMove.to(move);
+        Piece mover = board.get(from);
+        if (mover == null) return 0;
 
-        // 2) Ataques de cavalo
-        int[][] KJUMPS = {{-2,-1},{-2,1},{-1,-2},{-1,2},{1,-2},{1,2},{2,-1},{2,1}};
-        for (int[] d : KJUMPS) {
-            int rr = r + d[0], cc = c + d[1];
-            if (rr>=0 && rr<8 && cc>=0 && cc<8) {
-                Piece p = board.get(new Position(rr, cc));
-                if (p instanceof Knight && p.isWhite() != sideToProtect) return true;
-            }
+        int[] gain = seeGain;
+        long occ = board.occupancy();
+        if (PackedMove.isEnPassant(move)) {
+            gain[0] = SEE_VALUE[Piece.PAWN];
+            occ ^= Board.bit(Board.square(from >>> 3, to & 7));
+        } else {
+            Piece victim = board.get(to);
+            gain[0] = victim == null ? 0 : SEE_VALUE[victim.getType()];
         }
-
-        // 3) Ataques do rei (adjacentes)
-        for (int dr=-1; dr<=1; dr++) for (int dc=-1; dc<=1; dc++) {
-            if (dr==0 && dc==0) continue;
-            int rr = r+dr, cc = c+dc;
-            if (rr>=0 && rr<8 && cc>=0 && cc<8) {
-                Piece p = board.get(new Position(rr, cc));
-                if (p instanceof King && p.isWhite() != sideToProtect) return true;
-            }
+        int onSquare = mover.getType(); // type of the piece standing on 'to'
+        int promo = PackedMove.promotion(move);
+        if (promo != 0) {
+            onSquare = PackedMove.promotedType(promo);
+            gain[0] += SEE_VALUE[onSquare] - SEE_VALUE[Piece.PAWN];
         }
 
-        // 4) Deslizantes: torre/rainha (linhas/colunas)
-        int[][] ROOK_DIRS = {{-1,0},{1,0},{0,-1},{0,1}};
-        for (int[] d : ROOK_DIRS) {
-            int rr = r + d[0], cc = c + d[1];
-            while (rr>=0 && rr<8 && cc>=0 && cc<8) {
-                Piece p = board.get(new Position(rr, cc));
-                if (p != null) {
-                    if (p.isWhite() != sideToProtect && (p instanceof Rook || p instanceof Queen)) return true;
-                    break;
-                }
-                rr += d[0]; cc += d[1];
+        long diagonal = board.bitboard(Piece.BISHOP, true) | board.bitboard(Piece.BISHOP, false)
+                | board.bitboard(Piece.QUEEN, true) | board.bitboard(Piece.QUEEN, false);
+        long straight = board.bitboard(Piece.ROOK, true) | board.bitboard(Piece.ROOK, false)
+                | board.bitboard(Piece.QUEEN, true) | board.bitboard(Piece.QUEEN, false);
+        long attackers = attackersTo(to, true, occ) | attackersTo(to, false, occ);
+        boolean side = mover.isWhite();
+        long fromSet = Board.bit(from);
+        int d = 0;
+        do {
+            d++;
+            gain[d] = SEE_VALUE[onSquare] - gain[d - 1]; // if the piece on 'to' gets taken
+            occ ^= fromSet;
+            attackers = (attackers | (Attacks.rook(to, occ) & straight)
+                    | (Attacks.bishop(to, occ) & diagonal)) & occ;
+            side = !side;
+
+            // Least valuable attacker of 'side'; the king may not take a defended piece
+            fromSet = 0L;
+            for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+                long set = attackers & board.bitboard(type, side);
+                if (set == 0) continue;
+                if (type == Piece.KING && (attackers & board.occupancy(!side)) != 0) break;
+                fromSet = set & -set;
+                onSquare = type;
+                break;
             }
-        }
+        } while (fromSet != 0);
 
-        // 5) Deslizantes: bispo/rainha (diagonais)
-        int[][] BISHOP_DIRS = {{-1,-1},{-1,1},{1,-1},{1,1}};
-        for (int[] d : BISHOP_DIRS) {
-            int rr = r + d[0], cc = c + d[1];
-            while (rr>=0 && rr<8 && cc>=0 && cc<8) {
-                Piece p = board.get(new Position(rr, cc));
-                if (p != null) {
-                    if (p.isWhite() != sideToProtect && (p instanceof Bishop || p instanceof Queen)) return true;
-                    break;
-                }
-                rr += d[0]; cc += d[1];
+        while (--d > 0) gain[d - 1] = -Math.max(-gain[d - 1], gain[d]);
+        return gain[0];
+    }
+
+    /** {@link #see(int)} for the piece on {@code from} moving to {@code to} (pawns promote to a queen). */
+    public int see(Position from, Position to) {
+        Piece p = board.get(from);
+        if (p == null) return 0;
+        int promo = 0, flags = 0;
+        if (p instanceof Pawn) {
+            if (isPromotionRow(p.isWhite(), to)) promo = PackedMove.PROMO_QUEEN;
+            if (to.equals(enPassantTarget) && from.getColumn() != to.getColumn() && board.get(to) == null) {
+                flags = PackedMove.EN_PASSANT | PackedMove.CAPTURE;
             }
         }
+        return see(PackedMove.promotion(from.index(), to.index(), promo, flags));
+    }
 
+    /**
+     * True if some enemy piece can capture the piece on {@code square} and come
+     * out ahead in the exchange (SEE above zero), e.g. to flag hanging pieces.
+     */
+    public boolean isHanging(Position square) {
+        Piece p = board.get(square);
+        if (p == null || p instanceof King) return false;
+        long attackers = attackersTo(square.index(), !p.isWhite(), board.occupancy());
+        while (attackers != 0) {
+            int a = Long.numberOfTrailingZeros(attackers);
+            attackers &= attackers - 1;
+            if (see(Position.of(a), square) > 0) return true;
+        }
         return false;
     }
 
     // Executes a move on this.board without doing legality checks or specials.
-    // Used only inside snapshots where the move was already validated.
+    // Kept for snapshot callers; legality checks use makeMove/unmakeMove instead.
     public void forceMoveNoChecks(Position from, Position to) {
         Piece p = board.get(from);
         if (p == null) return;
+        turnMovesValid = false;
 
         int dCol = Math.abs(to.getColumn() - from.getColumn());
         boolean isPawn = p instanceof Pawn;
@@ -425,16 +894,17 @@ public class Game {
 
         // Detect castling: king moves two columns
         boolean castle = isKing && dCol == 2;
+        int rightsBefore = castlingRights;
 
         // Base move
         board.set(to, p);
         board.set(from, null);
-        p.setMoved(true);
+        castlingRights &= CASTLE_KEEP[from.index()] & CASTLE_KEEP[to.index()];
 
         // Apply en passant capture
         if (ep) {
             int dir = p.isWhite() ? 1 : -1; // victim behind target
-            Position victim = new Position(to.getRow() + dir, to.getColumn());
+            Position victim = Position.of(to.getRow() + dir, to.getColumn());
             board.set(victim, null);
         }
 
@@ -443,47 +913,57 @@ public class Game {
             int row = to.getRow();
             if (to.getColumn() == 6) {
                 // O-O: rook h -> f
-                Piece rook = board.get(new Position(row, 7));
-                board.set(new Position(row, 5), rook);
-                board.set(new Position(row, 7), null);
-                if (rook != null) rook.setMoved(true);
+                Piece rook = board.get(Position.of(row, 7));
+                board.set(Position.of(row, 5), rook);
+                board.set(Position.of(row, 7), null);
             } else if (to.getColumn() == 2) {
                 // O-O-O: rook a -> d
-                Piece rook = board.get(new Position(row, 0));
-                board.set(new Position(row, 3), rook);
-                board.set(new Position(row, 0), null);
-                if (rook != null) rook.setMoved(true);
+                Piece rook = board.get(Position.of(row, 0));
+                board.set(Position.of(row, 3), rook);
+                board.set(Position.of(row, 0), null);
             }
         }
 
         // For snapshot simulation we don't keep EP availability
+        if (enPassantTarget != null) stateKey ^= Zobrist.enPassant(enPassantTarget.getColumn());
         enPassantTarget = null;
+        stateKey ^= Zobrist.castling(rightsBefore) ^ Zobrist.castling(castlingRights);
     }
 
-    // --------- King location ----------
-    private Position findKing(boolean whiteSide) {
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                Position pos = new Position(row, col);
-                Piece piece = board.get(pos);
-                if (piece instanceof King && piece.isWhite() == whiteSide) {
-                    return pos;
-                }
-            }
-        }
-        return null;
+    // --------- Zobrist state ----------
+    /** Castling rights still available (CASTLE_* bits). */
+    public int castlingRights() {
+        return castlingRights;
+    }
+
+    private long computeStateKey() {
+        long k = Zobrist.castling(castlingRights());
+        if (!whiteToMove) k ^= Zobrist.SIDE;
+        if (enPassantTarget != null) k ^= Zobrist.enPassant(enPassantTarget.getColumn());
+        return k;
     }
 
     // --------- Snapshot ----------
     public Game snapshotShallow() {
+        Game g = snapshotPosition();
+        g.history.addAll(this.history);
+        return g;
+    }
+
+    /**
+     * Copy of the current position only, without the notation history: what the
+     * engine's private copies (search threads, perft, move precomputation) need,
+     * at a cost that does not grow with the length of the game.
+     */
+    public Game snapshotPosition() {
         Game g = new Game(true);
-        g.board = this.board.copy(); // IMPORTANT: Board.copy() must deep-copy pieces and fix their board refs.
+        g.board = this.board.copy(); // pieces are shared flyweights: a plain array copy
         g.whiteToMove = this.whiteToMove;
         g.gameOver = this.gameOver;
-        g.enPassantTarget = (this.enPassantTarget == null)
-                ? null
-                : new Position(this.enPassantTarget.getRow(), this.enPassantTarget.getColumn());
-        g.history.addAll(this.history);
+        g.enPassantTarget = this.enPassantTarget; // canonical, immutable
+        g.castlingRights = this.castlingRights;
+        g.stateKey = this.stateKey;
+        g.attackMaps = this.attackMaps;
         return g;
     }
 
@@ -500,32 +980,15 @@ public class Game {
 
     // --------- Initial setup ----------
     private void setupPieces() {
-        // White back rank (row 7)
-        board.placePiece(new Rook(board, true), new Position(7, 0));
-        board.placePiece(new Knight(board, true), new Position(7, 1));
-        board.placePiece(new Bishop(board, true), new Position(7, 2));
-        board.placePiece(new Queen(board, true), new Position(7, 3));
-        board.placePiece(new King(board, true), new Position(7, 4));
-        board.placePiece(new Bishop(board, true), new Position(7, 5));
-        board.placePiece(new Knight(board, true), new Position(7, 6));
-        board.placePiece(new Rook(board, true), new Position(7, 7));
-        // White pawns (row 6)
-        for (int c = 0; c < 8; c++) {
-            board.placePiece(new Pawn(board, true), new Position(6, c));
-        }
-
-        // Black back rank (row 0)
-        board.placePiece(new Rook(board, false), new Position(0, 0));
-        board.placePiece(new Knight(board, false), new Position(0, 1));
-        board.placePiece(new Bishop(board, false), new Position(0, 2));
-        board.placePiece(new Queen(board, false), new Position(0, 3));
-        board.placePiece(new King(board, false), new Position(0, 4));
-        board.placePiece(new Bishop(board, false), new Position(0, 5));
-        board.placePiece(new Knight(board, false), new Position(0, 6));
-        board.placePiece(new Rook(board, false), new Position(0, 7));
-        // Black pawns (row 1)
+        int[] backRank = {Piece.ROOK, Piece.KNIGHT, Piece.BISHOP, Piece.QUEEN,
+                          Piece.KING, Piece.BISHOP, Piece.KNIGHT, Piece.ROOK};
         for (int c = 0; c < 8; c++) {
-            board.placePiece(new Pawn(board, false), new Position(1, c));
+            // White back rank (row 7) and pawns (row 6)
+            board.placePiece(Piece.of(backRank[c], true), Position.of(7, c));
+            board.placePiece(Piece.of(Piece.PAWN, true), Position.of(6, c));
+            // Black back rank (row 0) and pawns (row 1)
+            board.placePiece(Piece.of(backRank[c], false), Position.of(0, c));
+            board.placePiece(Piece.of(Piece.PAWN, false), Position.of(1, c));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Cache of static evaluations keyed by {@link controller.Game#zobristKey()}, kept
+ * apart from the {@link TranspositionTable} so that quiescence leaves, which are
+ * evaluated over and over across iterations and threads but never stored in the
+ * transposition table, are scored once.
+ *
+ * Each entry is a single long: the upper 48 bits of the key (for verification;
+ * the slot index comes from the low bits) and the score as a signed 16-bit value
+ * in the low bits. The table is direct-mapped and lossy: a new position simply
+ * overwrites its slot. It may be shared by all search threads without locks,
+ * since an entry is written and read as one long and a slot taken over by
+ * another position fails the key check. Two positions whose keys agree on the
+ * index and verification bits share an entry; like a transposition table
+ * collision, the search tolerates the rare wrong score this gives. The scores are
+ * those of one evaluation function, so the classical and the neural evaluations
+ * each need their own cache.
+ */
+public final class EvalCache {
+
+    /** Default capacity in entries; override with -Dchess.evalCacheEntries. */
+    public static final int DEFAULT_ENTRIES = Integer.getInteger("chess.evalCacheEntries", 1 << 16);
+
+    /** Returned by {@link #probe} when the position is not in the cache. */
+    static final int MISS = Integer.MIN_VALUE;
+
+    private static final long KEY_MASK = ~0xFFFFL;
+    // Score field of an empty slot; never stored, so an empty slot always misses
+    private static final long EMPTY = Short.MIN_VALUE & 0xFFFFL;
+
+    private final long[] table;
+    private final int mask;
+
+    public EvalCache() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /** Cache with {@code entries} slots, rounded down to a power of two. */
+    public EvalCache(int entries) {
+        int n = Integer.highestOneBit(Math.max(1, entries));
+        table = new long[n];
+        mask = n - 1;
+        clear();
+    }
+
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+    }
+
+    /** Cached score for {@code key}, or {@link #MISS}. */
+    int probe(long key) {
+        long e = table[(int) key & mask];
+        if (((e ^ key) & KEY_MASK) != 0) return MISS;
+        short score = (short) e;
+        return score == Short.MIN_VALUE ? MISS : score;
+    }
+
+    /** Stores {@code score}; scores that do not fit in 16 bits are not cached. */
+    void store(long key, int score) {
+        if (score <= Short.MIN_VALUE || score > Short.MAX_VALUE) return;
+        table[(int) key & mask] = (key & KEY_MASK) | (score & 0xFFFFL);
+    }
+}
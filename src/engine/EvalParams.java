@@ -0,0 +1,296 @@
+package engine;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The tunable numbers of the classical evaluation, each a middlegame/endgame
+ * pair: material and piece-square values ({@link Evaluator}) and the pawn
+ * structure and king terms ({@link PawnStructure}). Every term of the evaluation
+ * is one of these pairs times a count taken from the position, which is what
+ * lets {@link Evaluator#trace} express a position as coefficients for a tuner.
+ *
+ * {@link #ACTIVE}, read once at startup, is what the evaluation uses: the file
+ * named by -Dchess.evalParams, else {@value #RESOURCE} looked up like the piece
+ * images (classpath /resources/, classpath root, resources/ on disk), else the
+ * built-in defaults (the PeSTO tables and hand-picked pawn terms). The file is
+ * text, one group per line: its name followed by "mg:eg" pairs; groups left out
+ * keep their defaults. tools.TexelTuner writes it.
+ */
+public final class EvalParams {
+
+    public static final String RESOURCE = "eval.params";
+
+    // Parameter indices (one mg/eg pair each)
+    public static final int MATERIAL = 0;                   // by piece type, king unused
+    public static final int PST = MATERIAL + 6;             // [type][square], White's view, a8 first
+    public static final int DOUBLED = PST + 6 * 64;         // per extra pawn on a file
+    public static final int ISOLATED = DOUBLED + 1;
+    public static final int BACKWARD = ISOLATED + 1;
+    public static final int PASSED = BACKWARD + 1;          // by rank counted from its own side
+    public static final int SHIELD_NEAR = PASSED + 8;       // own pawn one row in front of a castled king
+    public static final int SHIELD_FAR = SHIELD_NEAR + 1;   // ... two rows in front
+    public static final int PASSER_ENEMY_KING = SHIELD_FAR + 1; // per square of enemy king distance to the stop square
+    public static final int PASSER_OWN_KING = PASSER_ENEMY_KING + 1;
+    public static final int COUNT = PASSER_OWN_KING + 1;
+
+    private static final String[] PIECE_NAMES = {"pawn", "knight", "bishop", "rook", "queen", "king"};
+
+    /** Named groups of consecutive parameters, in file order. */
+    private record Group(String name, int first, int length) { }
+
+    private static final Group[] GROUPS = groups();
+
+    private static final int[] MG_VALUE = {82, 337, 365, 477, 1025, 0};
+    private static final int[] EG_VALUE = {94, 281, 297, 512, 936, 0};
+
+    private static final int[][] MG_TABLE = {
+        { // pawn
+              0,   0,   0,   0,   0,   0,  0,   0,
+             98, 134,  61,  95,  68, 126, 34, -11,
+             -6,   7,  26,  31,  65,  56, 25, -20,
+            -14,  13,   6,  21,  23,  12, 17, -23,
+            -27,  -2,  -5,  12,  17,   6, 10, -25,
+            -26,  -4,  -4, -10,   3,   3, 33, -12,
+            -35,  -1, -20, -23, -15,  24, 38, -22,
+              0,   0,   0,   0,   0,   0,  0,   0,
+        },
+        { // knight
+            -167, -89, -34, -49,  61, -97, -15, -107,
+             -73, -41,  72,  36,  23,  62,   7,  -17,
+             -47,  60,  37,  65,  84, 129,  73,   44,
+              -9,  17,  19,  53,  37,  69,  18,   22,
+             -13,   4,  16,  13,  28,  19,  21,   -8,
+             -23,  -9,  12,  10,  19,  17,  25,  -16,
+             -29, -53, -12,  -3,  -1,  18, -14,  -19,
+            -105, -21, -58, -33, -17, -28, -19,  -23,
+        },
+        { // bishop
+            -29,   4, -82, -37, -25, -42,   7,  -8,
+            -26,  16, -18, -13,  30,  59,  18, -47,
+            -16,  37,  43,  40,  35,  50,  37,  -2,
+             -4,   5,  19,  50,  37,  37,   7,  -2,
+             -6,  13,  13,  26,  34,  12,  10,   4,
+              0,  15,  15,  15,  14,  27,  18,  10,
+              4,  15,  16,   0,   7,  21,  33,   1,
+            -33,  -3, -14, -21, -13, -12, -39, -21,
+        },
+        { // rook
+             32,  42,  32,  51, 63,  9,  31,  43,
+             27,  32,  58,  62, 80, 67,  26,  44,
+             -5,  19,  26,  36, 17, 45,  61,  16,
+            -24, -11,   7,  26, 24, 35,  -8, -20,
+            -36, -26, -12,  -1,  9, -7,   6, -23,
+            -45, -25, -16, -17,  3,  0,  -5, -33,
+            -44, -16, -20,  -9, -1, 11,  -6, -71,
+            -19, -13,   1,  17, 16,  7, -37, -26,
+        },
+        { // queen
+            -28,   0,  29,  12,  59,  44,  43,  45,
+            -24, -39,  -5,   1, -16,  57,  28,  54,
+            -13, -17,   7,   8,  29,  56,  47,  57,
+            -27, -27, -16, -16,  -1,  17,  -2,   1,
+             -9, -26,  -9, -10,  -2,  -4,   3,  -3,
+            -14,   2, -11,  -2,  -5,   2,  14,   5,
+            -35,  -8,  11,   2,   8,  15,  -3,   1,
+             -1, -18,  -9,  10, -15, -25, -31, -50,
+        },
+        { // king
+            -65,  23,  16, -15, -56, -34,   2,  13,
+             29,  -1, -20,  -7,  -8,  -4, -38, -29,
+             -9,  24,   2, -16, -20,   6,  22, -22,
+            -17, -20, -12, -27, -30, -25, -14, -36,
+            -49,  -1, -27, -39, -46, -44, -33, -51,
+            -14, -14, -22, -46, -44, -30, -15, -27,
+              1,   7,  -8, -64, -43, -16,   9,   8,
+            -15,  36,  12, -54,   8, -28,  24,  14,
+        },
+    };
+
+    private static final int[][] EG_TABLE = {
+        { // pawn
+              0,   0,   0,   0,   0,   0,   0,   0,
+            178, 173, 158, 134, 147, 132, 165, 187,
+             94, 100,  85,  67,  56,  53,  82,  84,
+             32,  24,  13,   5,  -2,   4,  17,  17,
+             13,   9,  -3,  -7,  -7,  -8,   3,  -1,
+              4,   7,  -6,   1,   0,  -5,  -1,  -8,
+             13,   8,   8,  10,  13,   0,   2,  -7,
+              0,   0,   0,   0,   0,   0,   0,   0,
+        },
+        { // knight
+            -58, -38, -13, -28, -31, -27, -63, -99,
+            -25,  -8, -25,  -2,  -9, -25, -24, -52,
+            -24, -20,  10,   9,  -1,  -9, -19, -41,
+            -17,   3,  22,  22,  22,  11,   8, -18,
+            -18,  -6,  16,  25,  16,  17,   4, -18,
+            -23,  -3,  -1,  15,  10,  -3, -20, -22,
+            -42, -20, -10,  -5,  -2, -20, -23, -44,
+            -29, -51, -23, -15, -22, -18, -50, -64,
+        },
+        { // bishop
+            -14, -21, -11,  -8, -7,  -9, -17, -24,
+             -8,  -4,   7, -12, -3, -13,  -4, -14,
+              2,  -8,   0,  -1, -2,   6,   0,   4,
+             -3,   9,  12,   9, 14,  10,   3,   2,
+             -6,   3,  13,  19,  7,  10,  -3,  -9,
+            -12,  -3,   8,  10, 13,   3,  -7, -15,
+            -14, -18,  -7,  -1,  4,  -9, -15, -27,
+            -23,  -9, -23,  -5, -9, -16,  -5, -17,
+        },
+        { // rook
+            13, 10, 18, 15, 12,  12,   8,   5,
+            11, 13, 13, 11, -3,   3,   8,   3,
+             7,  7,  7,  5,  4,  -3,  -5,  -3,
+             4,  3, 13,  1,  2,   1,  -1,   2,
+             3,  5,  8,  4, -5,  -6,  -8, -11,
+            -4,  0, -5, -1, -7, -12,  -8, -16,
+            -6, -6,  0,  2, -9,  -9, -11,  -3,
+            -9,  2,  3, -1, -5, -13,   4, -20,
+        },
+        { // queen
+             -9,  22,  22,  27,  27,  19,  10,  20,
+            -17,  20,  32,  41,  58,  25,  30,   0,
+            -20,   6,   9,  49,  47,  35,  19,   9,
+              3,  22,  24,  45,  57,  40,  57,  36,
+            -18,  28,  19,  47,  31,  34,  39,  23,
+            -16, -27,  15,   6,   9,  17,  10,   5,
+            -22, -23, -30, -16, -16, -23, -36, -32,
+            -33, -28, -22, -43,  -5, -32, -20, -41,
+        },
+        { // king
+            -74, -35, -18, -18, -11,  15,   4, -17,
+            -12,  17,  14,  17,  17,  38,  23,  11,
+             10,  17,  23,  15,  20,  45,  44,  13,
+             -8,  22,  24,  27,  26,  33,  26,   3,
+            -18,  -4,  21,  24,  27,  23,   9, -11,
+            -19,  -3,  11,  21,  23,  16,   7,  -9,
+            -27, -11,   4,  13,  14,   4,  -5, -17,
+            -53, -34, -21, -11, -28, -14, -24, -43,
+        },
+    };
+
+    public static final EvalParams ACTIVE = loadActive();
+
+    private final int[] mg = new int[COUNT];
+    private final int[] eg = new int[COUNT];
+
+    private EvalParams() { }
+
+    /** The built-in values. */
+    public static EvalParams defaults() {
+        EvalParams p = new EvalParams();
+        for (int type = 0; type < 6; type++) {
+            p.set(MATERIAL + type, MG_VALUE[type], EG_VALUE[type]);
+            for (int sq = 0; sq < 64; sq++) p.set(PST + type * 64 + sq, MG_TABLE[type][sq], EG_TABLE[type][sq]);
+        }
+        p.set(DOUBLED, -10, -20);
+        p.set(ISOLATED, -10, -15);
+        p.set(BACKWARD, -8, -10);
+        int[] passedMg = {0, 0, 5, 10, 20, 35, 55, 0};
+        int[] passedEg = {0, 5, 10, 20, 40, 70, 110, 0};
+        for (int r = 0; r < 8; r++) p.set(PASSED + r, passedMg[r], passedEg[r]);
+        p.set(SHIELD_NEAR, 12, 0);
+        p.set(SHIELD_FAR, 6, 0);
+        p.set(PASSER_ENEMY_KING, 0, 5);
+        p.set(PASSER_OWN_KING, 0, -2);
+        return p;
+    }
+
+    public int mg(int param) { return mg[param]; }
+    public int eg(int param) { return eg[param]; }
+
+    public void set(int param, int mgValue, int egValue) {
+        mg[param] = mgValue;
+        eg[param] = egValue;
+    }
+
+    public EvalParams copy() {
+        EvalParams p = new EvalParams();
+        System.arraycopy(mg, 0, p.mg, 0, COUNT);
+        System.arraycopy(eg, 0, p.eg, 0, COUNT);
+        return p;
+    }
+
+    // ===== File format =====
+
+    /** Reads a parameter file over a copy of {@code base}. */
+    public static EvalParams read(InputStream in, EvalParams base) throws IOException {
+        EvalParams p = base.copy();
+        BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = r.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] tok = line.split("\\s+");
+            Group g = Arrays.stream(GROUPS).filter(x -> x.name.equals(tok[0])).findFirst()
+                    .orElseThrow(() -> new IOException("unknown parameter group: " + tok[0]));
+            if (tok.length != g.length + 1) throw new IOException(g.name + ": expected " + g.length + " values");
+            for (int i = 0; i < g.length; i++) {
+                String[] pair = tok[i + 1].split(":");
+                if (pair.length != 2) throw new IOException(g.name + ": bad value " + tok[i + 1]);
+                try {
+                    p.set(g.first + i, Integer.parseInt(pair[0]), Integer.parseInt(pair[1]));
+                } catch (NumberFormatException e) {
+                    throw new IOException(g.name + ": bad value " + tok[i + 1]);
+                }
+            }
+        }
+        return p;
+    }
+
+    public void write(Writer w) {
+        PrintWriter out = new PrintWriter(w);
+        out.println("# Evaluation parameters, mg:eg pairs (see engine.EvalParams)");
+        for (Group g : GROUPS) {
+            StringBuilder sb = new StringBuilder(g.name);
+            for (int i = 0; i < g.length; i++) sb.append(' ').append(mg[g.first + i]).append(':').append(eg[g.first + i]);
+            out.println(sb);
+        }
+        out.flush();
+    }
+
+    private static EvalParams loadActive() {
+        String path = System.getProperty("chess.evalParams");
+        try (InputStream in = path != null ? new FileInputStream(path) : openResource()) {
+            if (in != null) return read(in, defaults());
+        } catch (IOException e) {
+            System.err.println("Cannot load evaluation parameters: " + e.getMessage() + "; using the defaults");
+        }
+        return defaults();
+    }
+
+    private static InputStream openResource() throws IOException {
+        InputStream in = EvalParams.class.getResourceAsStream("/resources/" + RESOURCE);
+        if (in == null) in = EvalParams.class.getResourceAsStream("/" + RESOURCE);
+        if (in == null) {
+            File f = new File("resources", RESOURCE);
+            if (f.exists()) in = new FileInputStream(f);
+        }
+        return in;
+    }
+
+    private static Group[] groups() {
+        Group[] g = new Group[6 + 9];
+        int n = 0;
+        g[n++] = new Group("material", MATERIAL, 6);
+        for (int type = 0; type < 6; type++) g[n++] = new Group("pst." + PIECE_NAMES[type], PST + type * 64, 64);
+        g[n++] = new Group("pawn.doubled", DOUBLED, 1);
+        g[n++] = new Group("pawn.isolated", ISOLATED, 1);
+        g[n++] = new Group("pawn.backward", BACKWARD, 1);
+        g[n++] = new Group("pawn.passed", PASSED, 8);
+        g[n++] = new Group("king.shieldNear", SHIELD_NEAR, 1);
+        g[n++] = new Group("king.shieldFar", SHIELD_FAR, 1);
+        g[n++] = new Group("passer.enemyKingDistance", PASSER_ENEMY_KING, 1);
+        g[n++] = new Group("passer.ownKingDistance", PASSER_OWN_KING, 1);
+        return Arrays.copyOf(g, n);
+    }
+}
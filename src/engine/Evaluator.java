@@ -0,0 +1,109 @@
+package engine;
+
+import model.board.Board;
+import model.pieces.Piece;
+
+/**
+ * Static evaluation in centipawns from the point of view of the side to move:
+ * material plus piece-square tables plus pawn structure ({@link PawnStructure}),
+ * each with a middlegame and an endgame value, blended ("tapered") by the game
+ * phase.
+ *
+ * The phase is derived from the material left on the board: 24 with all minor
+ * and major pieces present (knight and bishop 1, rook 2, queen 4), 0 with only
+ * kings and pawns, so the score slides gradually towards the endgame terms.
+ *
+ * The values come from {@link EvalParams#ACTIVE} (by default the well-known
+ * PeSTO tables), written from White's point of view with a8 first (the same
+ * square numbering as {@link Board}); Black reads them mirrored vertically.
+ * {@link #evaluate} recomputes everything from the board; the search keeps the
+ * same sums incrementally in an {@link IncrementalEvaluator}, with pawn
+ * structure cached in a {@link PawnHashTable}, and uses this method as its
+ * reference. {@link #trace} breaks the same evaluation down into parameter
+ * coefficients for tuning.
+ */
+public final class Evaluator {
+
+    // Simple piece values, indexed by Piece.PAWN..Piece.KING (SEE-style pruning margins)
+    public static final int[] PIECE_VALUE = {100, 320, 330, 500, 900, 0};
+
+    public static final int MAX_PHASE = 24;
+    static final int[] PHASE_WEIGHT = {0, 1, 1, 2, 4, 0};
+
+    // Value + table entry of each piece (type + (white ? 0 : 6), as in Board) on each
+    // square, from White's point of view (negative for Black)
+    static final int[][] MG = new int[12][64];
+    static final int[][] EG = new int[12][64];
+
+    static {
+        EvalParams p = EvalParams.ACTIVE;
+        for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+            int material = EvalParams.MATERIAL + type, pst = EvalParams.PST + type * 64;
+            for (int sq = 0; sq < 64; sq++) {
+                MG[type][sq] = p.mg(material) + p.mg(pst + sq);
+                EG[type][sq] = p.eg(material) + p.eg(pst + sq);
+                MG[type + 6][sq] = -(p.mg(material) + p.mg(pst + (sq ^ 56)));
+                EG[type + 6][sq] = -(p.eg(material) + p.eg(pst + (sq ^ 56)));
+            }
+        }
+    }
+
+    private Evaluator() { }
+
+    /** Full evaluation, recomputed from every piece on the board. */
+    public static int evaluate(Board board, boolean whiteToMove) {
+        int mg = 0, eg = 0, phase = 0;
+        for (int i = 0; i < 12; i++) {
+            long bb = board.bitboard(i % 6, i < 6);
+            phase += PHASE_WEIGHT[i % 6] * Long.bitCount(bb);
+            while (bb != 0) {
+                int sq = Long.numberOfTrailingZeros(bb);
+                bb &= bb - 1;
+                mg += MG[i][sq];
+                eg += EG[i][sq];
+            }
+        }
+        long wp = board.bitboard(Piece.PAWN, true), bp = board.bitboard(Piece.PAWN, false);
+        long wPassed = PawnStructure.passed(wp, bp, true);
+        long bPassed = PawnStructure.passed(bp, wp, false);
+        long pawns = PawnStructure.score(wp, bp, wPassed, bPassed)
+                + PawnStructure.kingTerms(board, wPassed, bPassed);
+
+        int score = taper(mg + PawnStructure.mg(pawns), eg + PawnStructure.eg(pawns), phase);
+        return whiteToMove ? score : -score;
+    }
+
+    /**
+     * Breaks {@link #evaluate} down into {@link EvalParams}: adds to
+     * {@code coefficients} (one per parameter) how many times each parameter is
+     * counted for White minus for Black, and returns the phase. With any
+     * parameter values, the evaluation from White's point of view is then
+     * {@code taper(sum of coefficient * mg, sum of coefficient * eg, phase)}.
+     */
+    public static int trace(Board board, int[] coefficients) {
+        int phase = 0;
+        for (int i = 0; i < 12; i++) {
+            int type = i % 6, sign = i < 6 ? 1 : -1;
+            long bb = board.bitboard(type, i < 6);
+            phase += PHASE_WEIGHT[type] * Long.bitCount(bb);
+            coefficients[EvalParams.MATERIAL + type] += sign * Long.bitCount(bb);
+            while (bb != 0) {
+                int sq = Long.numberOfTrailingZeros(bb);
+                bb &= bb - 1;
+                coefficients[EvalParams.PST + type * 64 + (i < 6 ? sq : sq ^ 56)] += sign;
+            }
+        }
+        PawnStructure.trace(board, coefficients);
+        return phase;
+    }
+
+    /** Blends the middlegame and endgame scores by the phase (more than MAX_PHASE counts as MAX_PHASE). */
+    public static int taper(int mg, int eg, int phase) {
+        int p = Math.min(phase, MAX_PHASE);
+        return (mg * p + eg * (MAX_PHASE - p)) / MAX_PHASE;
+    }
+
+    static int index(Piece piece) {
+        return piece.getType() + (piece.isWhite() ? 0 : 6);
+    }
+}
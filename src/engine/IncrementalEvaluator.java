@@ -0,0 +1,93 @@
+package engine;
+
+import model.board.Board;
+import model.board.BoardListener;
+import model.pieces.Piece;
+
+/**
+ * {@link Evaluator}'s material + piece-square sums kept up to date as pieces
+ * move: attached as the {@link BoardListener} of a board, it adds or subtracts
+ * one table entry per piece placed or removed, so a move costs a handful of
+ * additions and an evaluation only the final taper. Pawn structure comes from
+ * a {@link PawnHashTable} of its own, so it is scored once per pawn formation.
+ *
+ * {@link #verify()} recomputes everything from scratch; the search asserts it
+ * (run with -ea) to catch incremental drift or a stale pawn entry.
+ */
+public final class IncrementalEvaluator implements BoardListener {
+
+    private final PawnHashTable pawns;
+    private Board board;
+    private int mg, eg, phase;
+
+    public IncrementalEvaluator() {
+        this(new PawnHashTable());
+    }
+
+    public IncrementalEvaluator(PawnHashTable pawns) {
+        this.pawns = pawns;
+    }
+
+    public PawnHashTable pawnTable() {
+        return pawns;
+    }
+
+    /** Starts tracking {@code board} (replacing its current listener), from a full computation. */
+    public void attach(Board board) {
+        this.board = board;
+        recompute();
+        board.setListener(this);
+    }
+
+    /** Score in centipawns from the point of view of the side to move. */
+    public int evaluate(boolean whiteToMove) {
+        int slot = pawns.probe(board);
+        long p = pawns.score(slot)
+                + PawnStructure.kingTerms(board, pawns.passed(slot, true), pawns.passed(slot, false));
+        int score = Evaluator.taper(mg + PawnStructure.mg(p), eg + PawnStructure.eg(p), phase);
+        return whiteToMove ? score : -score;
+    }
+
+    /** Game phase from the material left: {@link Evaluator#MAX_PHASE} at the start, 0 with kings and pawns only. */
+    public int phase() {
+        return Math.min(phase, Evaluator.MAX_PHASE);
+    }
+
+    /**
+     * True if the incremental sums match a full recomputation of the attached
+     * board and the resulting score matches {@link Evaluator#evaluate}.
+     */
+    public boolean verify() {
+        int mg0 = mg, eg0 = eg, phase0 = phase;
+        recompute();
+        boolean ok = mg == mg0 && eg == eg0 && phase == phase0;
+        mg = mg0;
+        eg = eg0;
+        phase = phase0;
+        return ok && evaluate(true) == Evaluator.evaluate(board, true);
+    }
+
+    @Override
+    public void pieceAdded(Piece piece, int square) {
+        int i = Evaluator.index(piece);
+        mg += Evaluator.MG[i][square];
+        eg += Evaluator.EG[i][square];
+        phase += Evaluator.PHASE_WEIGHT[piece.getType()];
+    }
+
+    @Override
+    public void pieceRemoved(Piece piece, int square) {
+        int i = Evaluator.index(piece);
+        mg -= Evaluator.MG[i][square];
+        eg -= Evaluator.EG[i][square];
+        phase -= Evaluator.PHASE_WEIGHT[piece.getType()];
+    }
+
+    private void recompute() {
+        mg = eg = phase = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = board.get(sq);
+            if (p != null) pieceAdded(p, sq);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package engine;
+
+import java.util.Arrays;
+import model.board.MoveList;
+import model.board.PackedMove;
+
+/**
+ * Quiet-move ordering knowledge gathered by the search, kept in flat primitive
+ * arrays so one instance can be reused across searches without allocation:
+ * <ul>
+ *   <li>killers: two quiet moves per ply that recently caused a beta cutoff;</li>
+ *   <li>history: a butterfly table [side][from][to] rewarding quiet moves that
+ *       cut off and penalising the quiet moves tried before them;</li>
+ *   <li>countermoves: the quiet move that last refuted a given previous move
+ *       (indexed by its from/to squares).</li>
+ * </ul>
+ * The hash move and MVV-LVA capture scores need no state and live in
+ * {@link MovePicker}, which reads this table to order the quiet stages.
+ *
+ * Not thread-safe: each search thread owns its own instance.
+ */
+public final class MoveOrdering {
+
+    // History scores stay within +-HISTORY_MAX (updates saturate towards the bound)
+    private static final int HISTORY_MAX = 16_384;
+    private static final int MAX_BONUS = 1_200;
+
+    private final int[] killers = new int[Search.MAX_PLY * 2];
+    private final int[] history = new int[2 * 64 * 64];
+    private final int[] counterMoves = new int[64 * 64];
+
+    /**
+     * Prepares for a new search from a new root: killers are ply-relative and are
+     * cleared, history is halved so the previous move's statistics only bias it.
+     */
+    public void newSearch() {
+        Arrays.fill(killers, Search.NO_MOVE);
+        for (int i = 0; i < history.length; i++) history[i] /= 2;
+    }
+
+    /** Forgets everything (e.g. for a new game). */
+    public void clear() {
+        Arrays.fill(killers, Search.NO_MOVE);
+        Arrays.fill(history, 0);
+        Arrays.fill(counterMoves, Search.NO_MOVE);
+    }
+
+    int killer1(int ply) { return killers[ply * 2]; }
+    int killer2(int ply) { return killers[ply * 2 + 1]; }
+
+    /** Countermove to {@code previousMove}, or {@link Search#NO_MOVE}. */
+    int counterMove(int previousMove) {
+        return previousMove == Search.NO_MOVE ? Search.NO_MOVE : counterMoves[butterfly(previousMove)];
+    }
+
+    int history(boolean white, int move) {
+        return history[(white ? 0 : 4096) + butterfly(move)];
+    }
+
+    /**
+     * Records a quiet move that caused a beta cutoff at {@code ply}: it becomes the
+     * first killer and the countermove of {@code previousMove}, its history grows
+     * with the depth, and the {@code tried} quiet moves searched before it (the
+     * cutoff move excluded) are penalised by the same amount.
+     */
+    void onQuietCutoff(boolean white, int ply, int depth, int previousMove, int move, MoveList tried) {
+        int k = ply * 2;
+        if (!PackedMove.same(killers[k], move)) {
+            killers[k + 1] = killers[k];
+            killers[k] = move;
+        }
+        if (previousMove != Search.NO_MOVE) counterMoves[butterfly(previousMove)] = move;
+
+        int bonus = Math.min(depth * depth, MAX_BONUS);
+        int side = white ? 0 : 4096;
+        updateHistory(side + butterfly(move), bonus);
+        for (int i = 0; i < tried.size(); i++) {
+            int q = tried.get(i);
+            if (!PackedMove.same(q, move)) updateHistory(side + butterfly(q), -bonus);
+        }
+    }
+
+    // Moves the entry towards +-HISTORY_MAX, more slowly the closer it already is
+    private void updateHistory(int index, int bonus) {
+        int h = history[index];
+        history[index] = h + bonus - h * Math.abs(bonus) / HISTORY_MAX;
+    }
+
+    private static int butterfly(int move) {
+        return PackedMove.from(move) * 64 + PackedMove.to(move);
+    }
+}
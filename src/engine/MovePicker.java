@@ -0,0 +1,187 @@
+package engine;
+
+import controller.Game;
+import model.board.Board;
+import model.board.MoveList;
+import model.board.PackedMove;
+import model.pieces.Piece;
+
+/**
+ * Staged move generation for one search node: the hash move first, then the
+ * captures and promotions (best MVV-LVA score first), then the two killer moves
+ * and the countermove, and only then the other quiet moves, best history score
+ * first (see {@link MoveOrdering}).
+ *
+ * Each stage is generated when the previous one runs dry, from the pseudo-legal
+ * generators of {@link Game}, and legality is tested per move as it is handed
+ * out. A node that cuts off on the hash move or a good capture never generates,
+ * sorts or legality-checks its quiet moves.
+ *
+ * One picker per ply is kept by {@link Search} and re-armed with {@link #reset},
+ * so picking moves does not allocate.
+ */
+final class MovePicker {
+
+    private static final int HASH = 0, GEN_CAPTURES = 1, CAPTURES = 2, KILLER_1 = 3,
+            KILLER_2 = 4, COUNTER = 5, GEN_QUIETS = 6, QUIETS = 7, DONE = 8;
+
+    // MVV-LVA victim values, indexed by Piece.PAWN..Piece.KING
+    private static final int[] VICTIM = {1, 3, 3, 5, 9, 0};
+
+    private final Game game;
+    private final MoveOrdering ordering;
+    private final MoveList captures = new MoveList();
+    private final MoveList quiets = new MoveList();
+    private final int[] scores = new int[MoveList.MAX_MOVES];
+
+    private int stage;
+    private int index;
+    private int hashMove, killer1, killer2, counter;
+    private boolean capturesOnly;
+
+    MovePicker(Game game, MoveOrdering ordering) {
+        this.game = game;
+        this.ordering = ordering;
+    }
+
+    /**
+     * Re-arms the picker for the current position of the game, reached at
+     * {@code ply} by {@code previousMove}. The hash move, killers and countermove
+     * may come from other positions (flags dropped or not even pseudo-legal here);
+     * they are validated before being returned.
+     */
+    void reset(int hashMove, int ply, int previousMove) {
+        this.stage = HASH;
+        this.hashMove = hashMove;
+        this.killer1 = ordering.killer1(ply);
+        this.killer2 = ordering.killer2(ply);
+        this.counter = ordering.counterMove(previousMove);
+        this.capturesOnly = false;
+    }
+
+    /** Re-arms the picker to return every legal move, with no hash move or killers (check evasions). */
+    void resetAll() {
+        this.stage = HASH;
+        this.hashMove = this.killer1 = this.killer2 = this.counter = Search.NO_MOVE;
+        this.capturesOnly = false;
+    }
+
+    /** Re-arms the picker to return only captures and promotions (quiescence search). */
+    void resetCaptures() {
+        resetAll();
+        this.capturesOnly = true;
+    }
+
+    /** Next legal move in stage order, or {@link Search#NO_MOVE} when exhausted. */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case HASH -> {
+                    stage = GEN_CAPTURES;
+                    if (hashMove == Search.NO_MOVE) break;
+                    int m = game.pseudoLegalMove(hashMove);
+                    if (m == PackedMove.NONE || !game.isLegal(m)) {
+                        hashMove = Search.NO_MOVE;
+                        break;
+                    }
+                    hashMove = m;
+                    return m;
+                }
+                case GEN_CAPTURES -> {
+                    game.generateCaptures(captures);
+                    for (int i = 0; i < captures.size(); i++) scores[i] = mvvLva(captures.get(i));
+                    index = 0;
+                    stage = CAPTURES;
+                }
+                case CAPTURES -> {
+                    while (index < captures.size()) {
+                        int m = pickBest(captures, index++);
+                        if (!PackedMove.same(m, hashMove) && game.isLegal(m)) return m;
+                    }
+                    stage = capturesOnly ? DONE : KILLER_1;
+                }
+                case KILLER_1 -> {
+                    stage = KILLER_2;
+                    int m = quietMove(killer1);
+                    if (m != Search.NO_MOVE) return m;
+                }
+                case KILLER_2 -> {
+                    stage = COUNTER;
+                    int m = PackedMove.same(killer2, killer1) ? Search.NO_MOVE : quietMove(killer2);
+                    if (m != Search.NO_MOVE) return m;
+                }
+                case COUNTER -> {
+                    stage = GEN_QUIETS;
+                    if (PackedMove.same(counter, killer1) || PackedMove.same(counter, killer2)) break;
+                    int m = quietMove(counter);
+                    if (m != Search.NO_MOVE) return m;
+                }
+                case GEN_QUIETS -> {
+                    game.generateQuiets(quiets);
+                    boolean white = game.whiteToMove();
+                    for (int i = 0; i < quiets.size(); i++) scores[i] = ordering.history(white, quiets.get(i));
+                    index = 0;
+                    stage = QUIETS;
+                }
+                case QUIETS -> {
+                    while (index < quiets.size()) {
+                        int m = pickBest(quiets, index++);
+                        if (PackedMove.same(m, hashMove) || PackedMove.same(m, killer1)
+                                || PackedMove.same(m, killer2) || PackedMove.same(m, counter)) continue;
+                        if (game.isLegal(m)) return m;
+                    }
+                    stage = DONE;
+                }
+                default -> {
+                    return Search.NO_MOVE;
+                }
+            }
+        }
+    }
+
+    /** True for the moves searched in the capture stage (and by quiescence). */
+    static boolean isNoisy(int move) {
+        return PackedMove.isCapture(move) || PackedMove.promotion(move) != 0;
+    }
+
+    // A killer or countermove is tried only if it is still a legal quiet move here
+    // and was not already returned as the hash move; otherwise it is dropped
+    private int quietMove(int move) {
+        if (move == Search.NO_MOVE || PackedMove.same(move, hashMove)) return Search.NO_MOVE;
+        int m = game.pseudoLegalMove(move);
+        if (m == PackedMove.NONE || isNoisy(m) || !game.isLegal(m)) return Search.NO_MOVE;
+        return m;
+    }
+
+    // Most valuable victim first, least valuable attacker breaking ties;
+    // a promotion scores the promoted piece as an extra victim
+    private int mvvLva(int move) {
+        Board board = game.board();
+        int victim = 0;
+        if (PackedMove.isEnPassant(move)) {
+            victim = VICTIM[Piece.PAWN];
+        } else if (PackedMove.isCapture(move)) {
+            victim = VICTIM[board.get(PackedMove.to(move)).getType()];
+        }
+        int promo = PackedMove.promotion(move);
+        if (promo != 0) victim += VICTIM[PackedMove.promotedType(promo)] - VICTIM[Piece.PAWN];
+        return victim * 8 - board.get(PackedMove.from(move)).getType();
+    }
+
+    // Selection step: swaps the best-scored move of [from, size) into 'from'
+    private int pickBest(MoveList moves, int from) {
+        int best = from;
+        for (int i = from + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+        if (best != from) {
+            int m = moves.get(best);
+            moves.set(best, moves.get(from));
+            moves.set(from, m);
+            int s = scores[best];
+            scores[best] = scores[from];
+            scores[from] = s;
+        }
+        return moves.get(from);
+    }
+}
@@ -0,0 +1,152 @@
+package engine;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import model.pieces.Piece;
+
+/**
+ * Quantized weights of the neural evaluation used by {@link NnueEvaluator}:
+ * <pre>
+ *   features (2 x 2560, HalfKP-like) -> 2 x 64 int16 accumulators
+ *     -> clipped ReLU -> 16 (int8 weights) -> clipped ReLU -> 1 (int8 weights)
+ * </pre>
+ * A feature is one non-king piece on one square, seen from one side's king
+ * ("perspective"): the board is flipped vertically for Black, and mirrored
+ * horizontally when that king stands on files e-h, so the king's file selects
+ * one of 4 buckets of piece-square weights. Each side has its own accumulator,
+ * the sum of the feature transformer columns of its active features; the dense
+ * layers read the side to move's accumulator first.
+ *
+ * Activations are fixed point, 1.0 = {@link #QA}; dense weights are scaled by
+ * {@link #QB}, so the output is the network value times QA * QB, and one unit
+ * of network value is {@link #OUTPUT_SCALE} centipawns.
+ *
+ * The weights file is a gzip stream of big-endian values: magic, version, the
+ * four dimensions, then feature transformer biases and weights (int16), layer 1
+ * weights (int8) and biases (int32), layer 2 weights (int8) and bias (int32).
+ * No weights ship with the game: {@link #defaultNetwork()} loads the file named
+ * by -Dchess.nnue, or a {@value #RESOURCE} installed next to the piece images.
+ */
+public final class Network {
+
+    public static final int KING_BUCKETS = 4;
+    // Pawn..queen of the perspective's side, then of the other side
+    public static final int PIECE_KINDS = 10;
+    public static final int FEATURES = KING_BUCKETS * PIECE_KINDS * 64;
+    public static final int HIDDEN = 64;
+    public static final int L1 = 16;
+
+    public static final int QA = 127;
+    public static final int QB = 64;
+    public static final int OUTPUT_SCALE = 400;
+
+    public static final String RESOURCE = "nnue.bin";
+
+    private static final int MAGIC = 0x4E4E5545; // "NNUE"
+    private static final int VERSION = 1;
+
+    final short[] ftBias;     // [HIDDEN]
+    final short[] ftWeights;  // [FEATURES][HIDDEN]
+    final int[] l1Weights;    // [2 * HIDDEN][L1] (transposed from the file), int8 values
+    final int[] l1Bias;       // [L1]
+    final int[] l2Weights;    // [L1], int8 values
+    final int l2Bias;
+
+    public Network(short[] ftBias, short[] ftWeights, byte[] l1Weights, int[] l1Bias,
+                   byte[] l2Weights, int l2Bias) {
+        if (ftBias.length != HIDDEN || ftWeights.length != FEATURES * HIDDEN
+                || l1Weights.length != L1 * 2 * HIDDEN || l1Bias.length != L1 || l2Weights.length != L1) {
+            throw new IllegalArgumentException("Network dimensions do not match the architecture");
+        }
+        this.ftBias = ftBias.clone();
+        this.ftWeights = ftWeights.clone();
+        this.l1Weights = new int[l1Weights.length];
+        for (int j = 0; j < L1; j++) {
+            for (int i = 0; i < 2 * HIDDEN; i++) this.l1Weights[i * L1 + j] = l1Weights[j * 2 * HIDDEN + i];
+        }
+        this.l1Bias = l1Bias.clone();
+        this.l2Weights = widen(l2Weights);
+        this.l2Bias = l2Bias;
+    }
+
+    /**
+     * Index of the feature for {@code piece} (not a king) on {@code square}, from
+     * the perspective of the side whose king stands on {@code kingSquare}.
+     */
+    public static int feature(boolean perspective, int kingSquare, Piece piece, int square) {
+        int file = kingSquare & 7;
+        int bucket = file < 4 ? file : 7 - file;
+        int sq = perspective ? square : square ^ 56;
+        if (file >= 4) sq ^= 7;
+        int kind = piece.getType() + (piece.isWhite() == perspective ? 0 : 5);
+        return (bucket * PIECE_KINDS + kind) * 64 + sq;
+    }
+
+    // ===== Loading =====
+
+    private static final class Holder {
+        static final Network DEFAULT = loadDefault();
+    }
+
+    /** The installed network, or null if none can be found or read. */
+    public static Network defaultNetwork() {
+        return Holder.DEFAULT;
+    }
+
+    private static Network loadDefault() {
+        String path = System.getProperty("chess.nnue");
+        try (InputStream in = path != null ? new FileInputStream(path) : openResource()) {
+            if (in != null) return read(in);
+            System.err.println("NNUE weights not found (" + RESOURCE + "); using the classical evaluation");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Cannot load NNUE weights: " + e.getMessage() + "; using the classical evaluation");
+        }
+        return null;
+    }
+
+    // Same lookup order as the piece images: classpath /resources/, classpath root, resources/ on disk
+    private static InputStream openResource() throws IOException {
+        InputStream in = Network.class.getResourceAsStream("/resources/" + RESOURCE);
+        if (in == null) in = Network.class.getResourceAsStream("/" + RESOURCE);
+        if (in == null) {
+            File f = new File("resources", RESOURCE);
+            if (f.exists()) in = new FileInputStream(f);
+        }
+        return in;
+    }
+
+    public static Network read(InputStream raw) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw)));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("not an NNUE weights file");
+        if (in.readInt() != FEATURES || in.readInt() != HIDDEN || in.readInt() != L1 || in.readInt() != 1) {
+            throw new IOException("network dimensions do not match the architecture");
+        }
+        short[] ftBias = readShorts(in, HIDDEN);
+        short[] ftWeights = readShorts(in, FEATURES * HIDDEN);
+        byte[] l1Weights = new byte[L1 * 2 * HIDDEN];
+        in.readFully(l1Weights);
+        int[] l1Bias = new int[L1];
+        for (int i = 0; i < L1; i++) l1Bias[i] = in.readInt();
+        byte[] l2Weights = new byte[L1];
+        in.readFully(l2Weights);
+        int l2Bias = in.readInt();
+        return new Network(ftBias, ftWeights, l1Weights, l1Bias, l2Weights, l2Bias);
+    }
+
+    private static short[] readShorts(DataInputStream in, int n) throws IOException {
+        short[] a = new short[n];
+        for (int i = 0; i < n; i++) a[i] = in.readShort();
+        return a;
+    }
+
+    private static int[] widen(byte[] a) {
+        int[] w = new int[a.length];
+        for (int i = 0; i < a.length; i++) w[i] = a[i];
+        return w;
+    }
+}
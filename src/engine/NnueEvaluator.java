@@ -0,0 +1,134 @@
+package engine;
+
+import java.util.Arrays;
+import model.board.Board;
+import model.board.BoardListener;
+import model.pieces.Piece;
+
+/**
+ * Neural evaluation with a {@link Network}, kept efficiently updatable: attached
+ * as the {@link BoardListener} of a board, it adds or subtracts one weight column
+ * per perspective for each piece placed or removed, so a quiet move touches two
+ * columns of 64 int16 per side. Only the small dense layers run per evaluation.
+ *
+ * Kings are not features; a king changing file changes its side's bucket or
+ * mirroring, which marks that accumulator for a full refresh on the next
+ * evaluation (updates to it are skipped until then). Updates and evaluations
+ * allocate nothing; all buffers are owned by the instance, so each search thread
+ * needs its own evaluator (the network itself is shared read-only).
+ *
+ * {@link #verify()} rebuilds both accumulators from scratch; the search asserts
+ * it (run with -ea) to catch drift.
+ */
+public final class NnueEvaluator implements BoardListener {
+
+    private final Network net;
+    // [0] White's perspective, [1] Black's
+    private final short[][] acc = new short[2][Network.HIDDEN];
+    private final int[] kingSquare = new int[2];
+    private final boolean[] stale = new boolean[2];
+
+    private final int[] hidden = new int[Network.L1];
+    private final short[] check = new short[Network.HIDDEN];
+    private Board board;
+
+    public NnueEvaluator(Network net) {
+        this.net = net;
+    }
+
+    /** Starts tracking {@code board} (replacing its current listener), from a full computation. */
+    public void attach(Board board) {
+        this.board = board;
+        refresh(0);
+        refresh(1);
+        board.setListener(this);
+    }
+
+    /** Score in centipawns from the point of view of the side to move. */
+    public int evaluate(boolean whiteToMove) {
+        if (stale[0]) refresh(0);
+        if (stale[1]) refresh(1);
+        System.arraycopy(net.l1Bias, 0, hidden, 0, Network.L1);
+        affine(acc[whiteToMove ? 0 : 1], 0, net.l1Weights, hidden);
+        affine(acc[whiteToMove ? 1 : 0], Network.HIDDEN, net.l1Weights, hidden);
+        int out = net.l2Bias;
+        for (int j = 0; j < Network.L1; j++) out += clamp(hidden[j] / Network.QB) * net.l2Weights[j];
+        return (int) ((long) out * Network.OUTPUT_SCALE / (Network.QA * Network.QB));
+    }
+
+    /** True if both accumulators match a rebuild from the attached board. */
+    public boolean verify() {
+        for (int c = 0; c < 2; c++) {
+            if (stale[c]) continue;
+            short[] saved = acc[c];
+            acc[c] = check;
+            int king = kingSquare[c];
+            refresh(c);
+            boolean same = king == kingSquare[c] && Arrays.equals(check, saved);
+            acc[c] = saved;
+            if (!same) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void pieceAdded(Piece piece, int square) {
+        if (piece.getType() == Piece.KING) {
+            int c = piece.isWhite() ? 0 : 1;
+            if ((square & 7) != (kingSquare[c] & 7)) stale[c] = true;
+            kingSquare[c] = square;
+            return;
+        }
+        if (!stale[0]) add(acc[0], net.ftWeights, offset(true, piece, square));
+        if (!stale[1]) add(acc[1], net.ftWeights, offset(false, piece, square));
+    }
+
+    @Override
+    public void pieceRemoved(Piece piece, int square) {
+        if (piece.getType() == Piece.KING) return;
+        if (!stale[0]) sub(acc[0], net.ftWeights, offset(true, piece, square));
+        if (!stale[1]) sub(acc[1], net.ftWeights, offset(false, piece, square));
+    }
+
+    private int offset(boolean perspective, Piece piece, int square) {
+        return Network.feature(perspective, kingSquare[perspective ? 0 : 1], piece, square) * Network.HIDDEN;
+    }
+
+    // Rebuilds one perspective's accumulator from every piece on the board
+    private void refresh(int c) {
+        boolean white = c == 0;
+        int king = board.kingSquare(white);
+        if (king >= 0) kingSquare[c] = king;
+        short[] a = acc[c];
+        System.arraycopy(net.ftBias, 0, a, 0, a.length);
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = board.get(sq);
+            if (p != null && p.getType() != Piece.KING) add(a, net.ftWeights, offset(white, p, sq));
+        }
+        stale[c] = false;
+    }
+
+    private static void add(short[] acc, short[] weights, int offset) {
+        for (int i = 0; i < acc.length; i++) acc[i] += weights[offset + i];
+    }
+
+    private static void sub(short[] acc, short[] weights, int offset) {
+        for (int i = 0; i < acc.length; i++) acc[i] -= weights[offset + i];
+    }
+
+    // Adds one half of the first dense layer to out: weights are [2 * HIDDEN][L1],
+    // the inputs are the clipped accumulator, and inputs clipped to zero are skipped
+    private static void affine(short[] acc, int first, int[] weights, int[] out) {
+        int n = out.length;
+        for (int i = 0; i < acc.length; i++) {
+            int x = Math.min(acc[i], Network.QA);
+            if (x <= 0) continue;
+            int row = (first + i) * n;
+            for (int j = 0; j < n; j++) out[j] += x * weights[row + j];
+        }
+    }
+
+    private static int clamp(int v) {
+        return Math.max(0, Math.min(Network.QA, v));
+    }
+}
@@ -0,0 +1,67 @@
+package engine;
+
+import controller.Game;
+
+/**
+ * Lazy SMP: the main thread and N-1 helpers run the same iterative-deepening
+ * search over private copies of the root position, sharing only the lock-free
+ * {@link TranspositionTable} and {@link EvalCache}. Helpers on odd indices search one ply deeper, so
+ * threads fill the table with different subtrees instead of repeating work.
+ * The main thread owns the clock; when it returns, the helpers are stopped and
+ * its result is reported with the nodes of all threads.
+ */
+public final class ParallelSearch {
+
+    private ParallelSearch() { }
+
+    public static Search.Result search(Game root, TranspositionTable tt, int threads,
+                                       int maxDepth, long budgetMillis) {
+        return search(root, tt, new EvalCache(), new MoveOrdering(), Search.Options.DEFAULT,
+                threads, maxDepth, budgetMillis);
+    }
+
+    /**
+     * As above, with the main thread ordering moves by (and updating) {@code ordering},
+     * so its history and countermove tables carry over between searches. Helpers
+     * use fresh tables of their own. All threads search with the given options and
+     * share {@code evalCache}, which must hold scores of the evaluation they select.
+     */
+    public static Search.Result search(Game root, TranspositionTable tt, EvalCache evalCache,
+                                       MoveOrdering ordering, Search.Options options,
+                                       int threads, int maxDepth, long budgetMillis) {
+        Search main = new Search(root.snapshotPosition(), tt, evalCache, ordering, options);
+        if (threads <= 1) return main.search(maxDepth, budgetMillis);
+
+        Search[] helpers = new Search[threads - 1];
+        Thread[] workers = new Thread[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            Search h = new Search(root.snapshotPosition(), tt, evalCache, new MoveOrdering(), options);
+            h.makeHelper(i + 1);
+            helpers[i] = h;
+            workers[i] = new Thread(() -> h.search(maxDepth, budgetMillis), "lazy-smp-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+
+        Search.Result r;
+        try {
+            r = main.search(maxDepth, budgetMillis);
+        } finally {
+            for (Search h : helpers) h.stop();
+        }
+
+        long nodes = r.nodes();
+        Search.Stats stats = r.stats();
+        for (int i = 0; i < workers.length; i++) {
+            try {
+                workers[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            nodes += helpers[i].nodes();
+            stats = stats.plus(helpers[i].stats());
+        }
+        return new Search.Result(r.move(), r.score(), r.depth(), nodes, r.millis(), stats);
+    }
+}
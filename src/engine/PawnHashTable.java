@@ -0,0 +1,82 @@
+package engine;
+
+import model.board.Board;
+import model.pieces.Piece;
+
+/**
+ * Cache of {@link PawnStructure} results keyed by {@link Board#pawnKey()}.
+ * Pawn structure changes only on pawn moves and pawn captures, so in a typical
+ * search almost every evaluation finds its pawns already scored here.
+ *
+ * Entries live in one {@code long[]}, four longs each: the full pawn key (for
+ * verification), the packed middlegame/endgame score and the passed-pawn masks
+ * of both sides. The table is direct-mapped (a new structure overwrites the
+ * slot) and not thread-safe: each search thread owns its own.
+ */
+public final class PawnHashTable {
+
+    /** Default capacity in entries; override with -Dchess.pawnHashEntries. */
+    public static final int DEFAULT_ENTRIES = Integer.getInteger("chess.pawnHashEntries", 1 << 14);
+
+    private static final int LONGS_PER_ENTRY = 4;
+
+    private final long[] table;
+    private final int mask;
+    private long probes;
+    private long hits;
+
+    public PawnHashTable() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /** Table with {@code entries} slots, rounded down to a power of two. */
+    public PawnHashTable(int entries) {
+        int n = Integer.highestOneBit(Math.max(1, entries));
+        table = new long[n * LONGS_PER_ENTRY];
+        mask = n - 1;
+        // An all-zero slot would pass for the (empty) structure with key 0; make it miss
+        for (int i = 0; i < table.length; i += LONGS_PER_ENTRY) table[i] = -1L;
+    }
+
+    /**
+     * Slot holding the pawn structure of {@code board}, computed and stored first
+     * on a miss. Read it with {@link #score} and {@link #passed}.
+     */
+    int probe(Board board) {
+        long key = board.pawnKey();
+        int i = ((int) (key ^ (key >>> 32)) & mask) * LONGS_PER_ENTRY;
+        probes++;
+        if (table[i] == key) {
+            hits++;
+            return i;
+        }
+        long wp = board.bitboard(Piece.PAWN, true), bp = board.bitboard(Piece.PAWN, false);
+        long wPassed = PawnStructure.passed(wp, bp, true);
+        long bPassed = PawnStructure.passed(bp, wp, false);
+        table[i] = key;
+        table[i + 1] = PawnStructure.score(wp, bp, wPassed, bPassed);
+        table[i + 2] = wPassed;
+        table[i + 3] = bPassed;
+        return i;
+    }
+
+    /** Packed pawn-only score of a slot (see {@link PawnStructure#pack}). */
+    long score(int slot) {
+        return table[slot + 1];
+    }
+
+    long passed(int slot, boolean white) {
+        return table[slot + (white ? 2 : 3)];
+    }
+
+    public long probes() { return probes; }
+    public long hits() { return hits; }
+
+    public double hitRate() {
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+
+    public void resetStats() {
+        probes = hits = 0;
+    }
+}
@@ -0,0 +1,195 @@
+package engine;
+
+import model.board.Attacks;
+import model.board.Board;
+import model.pieces.Piece;
+
+/**
+ * Pawn-structure evaluation terms, as middlegame/endgame pairs packed into one
+ * {@code long} (see {@link #pack}) so they can be summed and cached together.
+ *
+ * {@link #score} depends on the pawns alone (doubled, isolated, backward and
+ * passed pawns) and is what {@link PawnHashTable} caches under the pawn key;
+ * {@link #kingTerms} also reads the king squares (pawn shield, king distance to
+ * passed pawns) and is recomputed on every evaluation from the cached
+ * passed-pawn masks. All scores are from White's point of view; the weights
+ * come from {@link EvalParams#ACTIVE}, and {@link #trace} counts how often each
+ * one applies.
+ */
+final class PawnStructure {
+
+    private static final long FILE_A = 0x0101010101010101L;
+
+    private static final EvalParams P = EvalParams.ACTIVE;
+    private static final int DOUBLED_MG = P.mg(EvalParams.DOUBLED), DOUBLED_EG = P.eg(EvalParams.DOUBLED);
+    private static final int ISOLATED_MG = P.mg(EvalParams.ISOLATED), ISOLATED_EG = P.eg(EvalParams.ISOLATED);
+    private static final int BACKWARD_MG = P.mg(EvalParams.BACKWARD), BACKWARD_EG = P.eg(EvalParams.BACKWARD);
+    // Passed pawn bonus by rank counted from its own side (1 = starting rank)
+    private static final int[] PASSED_MG = new int[8], PASSED_EG = new int[8];
+    private static final long SHIELD_NEAR = packed(EvalParams.SHIELD_NEAR), SHIELD_FAR = packed(EvalParams.SHIELD_FAR);
+    private static final long PASSER_ENEMY_KING = packed(EvalParams.PASSER_ENEMY_KING);
+    private static final long PASSER_OWN_KING = packed(EvalParams.PASSER_OWN_KING);
+
+    private static final long[] FILE = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // [0] white, [1] black: squares ahead of sq on its file and the adjacent files
+    private static final long[][] PASSED_SPAN = new long[2][64];
+    // Squares ahead of sq on its own file
+    private static final long[][] FRONT = new long[2][64];
+    // Squares on the adjacent files level with or behind sq (possible supporters)
+    private static final long[][] SUPPORT = new long[2][64];
+
+    static {
+        for (int r = 0; r < 8; r++) {
+            PASSED_MG[r] = P.mg(EvalParams.PASSED + r);
+            PASSED_EG[r] = P.eg(EvalParams.PASSED + r);
+        }
+        for (int c = 0; c < 8; c++) FILE[c] = FILE_A << c;
+        for (int c = 0; c < 8; c++) {
+            ADJACENT_FILES[c] = (c > 0 ? FILE[c - 1] : 0L) | (c < 7 ? FILE[c + 1] : 0L);
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            int r = sq >>> 3, c = sq & 7;
+            long above = (1L << (8 * r)) - 1;                  // rows < r (towards rank 8)
+            long below = r == 7 ? 0L : -1L << (8 * (r + 1));   // rows > r (towards rank 1)
+            FRONT[0][sq] = FILE[c] & above;
+            FRONT[1][sq] = FILE[c] & below;
+            PASSED_SPAN[0][sq] = (FILE[c] | ADJACENT_FILES[c]) & above;
+            PASSED_SPAN[1][sq] = (FILE[c] | ADJACENT_FILES[c]) & below;
+            SUPPORT[0][sq] = ADJACENT_FILES[c] & ~above;
+            SUPPORT[1][sq] = ADJACENT_FILES[c] & ~below;
+        }
+    }
+
+    private PawnStructure() { }
+
+    static long pack(int mg, int eg) {
+        return ((long) mg << 32) + eg;
+    }
+
+    private static long packed(int param) {
+        return pack(P.mg(param), P.eg(param));
+    }
+
+    static int mg(long packed) {
+        return (int) ((packed + 0x8000_0000L) >> 32);
+    }
+
+    static int eg(long packed) {
+        return (int) packed;
+    }
+
+    /** Passed pawns of one side: no enemy pawn ahead on its own or an adjacent file, no own pawn ahead. */
+    static long passed(long own, long enemy, boolean white) {
+        int c = white ? 0 : 1;
+        long result = 0L;
+        for (long bb = own; bb != 0; bb &= bb - 1) {
+            int sq = Long.numberOfTrailingZeros(bb);
+            if ((PASSED_SPAN[c][sq] & enemy) == 0 && (FRONT[c][sq] & own) == 0) result |= Board.bit(sq);
+        }
+        return result;
+    }
+
+    /** Pawn-only terms, White minus Black. */
+    static long score(long whitePawns, long blackPawns, long whitePassed, long blackPassed) {
+        return side(whitePawns, blackPawns, whitePassed, true, null)
+                - side(blackPawns, whitePawns, blackPassed, false, null);
+    }
+
+    /** Terms that also depend on the kings, White minus Black. */
+    static long kingTerms(Board board, long whitePassed, long blackPassed) {
+        return kingTerms(board, whitePassed, blackPassed, null);
+    }
+
+    /** Adds the parameter counts of both groups of terms to {@code coefficients} (see {@link Evaluator#trace}). */
+    static void trace(Board board, int[] coefficients) {
+        long wp = board.bitboard(Piece.PAWN, true), bp = board.bitboard(Piece.PAWN, false);
+        long wPassed = passed(wp, bp, true), bPassed = passed(bp, wp, false);
+        side(wp, bp, wPassed, true, coefficients);
+        side(bp, wp, bPassed, false, coefficients);
+        kingTerms(board, wPassed, bPassed, coefficients);
+    }
+
+    // With a trace, also counts each parameter used (negated for Black)
+    private static long side(long own, long enemy, long passed, boolean white, int[] trace) {
+        int c = white ? 0 : 1, sign = white ? 1 : -1;
+        int mg = 0, eg = 0;
+        for (int f = 0; f < 8; f++) {
+            int n = Long.bitCount(own & FILE[f]);
+            if (n > 1) {
+                mg += DOUBLED_MG * (n - 1);
+                eg += DOUBLED_EG * (n - 1);
+                if (trace != null) trace[EvalParams.DOUBLED] += sign * (n - 1);
+            }
+        }
+        for (long bb = own; bb != 0; bb &= bb - 1) {
+            int sq = Long.numberOfTrailingZeros(bb);
+            int file = sq & 7;
+            if ((ADJACENT_FILES[file] & own) == 0) {
+                mg += ISOLATED_MG;
+                eg += ISOLATED_EG;
+                if (trace != null) trace[EvalParams.ISOLATED] += sign;
+            } else if ((SUPPORT[c][sq] & own) == 0) {
+                // Cannot be supported by a neighbour and cannot advance safely
+                int stop = white ? sq - 8 : sq + 8;
+                if (stop >= 0 && stop < 64 && (Attacks.pawn(stop, white) & enemy) != 0) {
+                    mg += BACKWARD_MG;
+                    eg += BACKWARD_EG;
+                    if (trace != null) trace[EvalParams.BACKWARD] += sign;
+                }
+            }
+            if ((passed & Board.bit(sq)) != 0) {
+                int rank = white ? 7 - (sq >>> 3) : sq >>> 3;
+                mg += PASSED_MG[rank];
+                eg += PASSED_EG[rank];
+                if (trace != null) trace[EvalParams.PASSED + rank] += sign;
+            }
+        }
+        return pack(mg, eg);
+    }
+
+    private static long kingTerms(Board board, long whitePassed, long blackPassed, int[] trace) {
+        int wk = board.kingSquare(true), bk = board.kingSquare(false);
+        if (wk < 0 || bk < 0) return 0L;
+        long wp = board.bitboard(Piece.PAWN, true), bp = board.bitboard(Piece.PAWN, false);
+        return shield(wk, wp, true, trace) - shield(bk, bp, false, trace)
+                + passerKings(whitePassed, wk, bk, true, trace) - passerKings(blackPassed, bk, wk, false, trace);
+    }
+
+    // Own pawns one and two rows in front of a king castled on either wing
+    private static long shield(int king, long pawns, boolean white, int[] trace) {
+        int r = king >>> 3, c = king & 7;
+        if (r != (white ? 7 : 0) || c == 3 || c == 4) return 0L;
+        long files = FILE[c] | ADJACENT_FILES[c];
+        int dir = white ? -1 : 1;
+        int near = Long.bitCount(pawns & files & (0xFFL << (8 * (r + dir))));
+        int far = Long.bitCount(pawns & files & (0xFFL << (8 * (r + 2 * dir))));
+        if (trace != null) {
+            int sign = white ? 1 : -1;
+            trace[EvalParams.SHIELD_NEAR] += sign * near;
+            trace[EvalParams.SHIELD_FAR] += sign * far;
+        }
+        return SHIELD_NEAR * near + SHIELD_FAR * far;
+    }
+
+    // A passed pawn is worth more with the enemy king far from its path and ours near it
+    private static long passerKings(long passed, int ownKing, int enemyKing, boolean white, int[] trace) {
+        int enemy = 0, own = 0;
+        for (long bb = passed; bb != 0; bb &= bb - 1) {
+            int sq = Long.numberOfTrailingZeros(bb);
+            int stop = white ? sq - 8 : sq + 8;
+            enemy += distance(enemyKing, stop);
+            own += distance(ownKing, stop);
+        }
+        if (trace != null) {
+            int sign = white ? 1 : -1;
+            trace[EvalParams.PASSER_ENEMY_KING] += sign * enemy;
+            trace[EvalParams.PASSER_OWN_KING] += sign * own;
+        }
+        return PASSER_ENEMY_KING * enemy + PASSER_OWN_KING * own;
+    }
+
+    private static int distance(int a, int b) {
+        return Math.max(Math.abs((a >>> 3) - (b >>> 3)), Math.abs((a & 7) - (b & 7)));
+    }
+}
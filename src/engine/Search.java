@@ -0,0 +1,540 @@
+package engine;
+
+import controller.Game;
+import model.board.MoveList;
+import model.board.PackedMove;
+import model.pieces.Piece;
+
+/**
+ * Negamax alpha-beta search over a {@link Game} with iterative deepening and a
+ * wall-clock budget. The game is searched in place with makeMove/unmakeMove, so
+ * callers must hand in a private copy (see {@link Game#snapshotPosition()}).
+ *
+ * Moves are {@link PackedMove} ints. Interior nodes take them from a staged
+ * {@link MovePicker} (hash move, captures, killers, countermove, quiets), so a
+ * cutoff skips generating and legality-checking the moves that were never tried.
+ * Quiet moves are ordered by the killer, history and countermove tables of a
+ * {@link MoveOrdering}, which the caller may keep across searches.
+ *
+ * Leaves are resolved by a quiescence search over captures and promotions, so
+ * the static evaluation is only trusted in quiet positions (see {@link #quiescence}).
+ * Static evaluations go through an {@link EvalCache}, since the same leaves come
+ * back in every iteration and in every Lazy SMP thread.
+ *
+ * Selectivity comes from principal variation search, null-move pruning, late
+ * move reductions and aspiration windows at the root, each of which can be
+ * turned off through {@link Options} to measure what it is worth.
+ */
+public final class Search {
+
+    public static final int INFINITY = 1_000_000;
+    public static final int MATE = 100_000;
+    public static final int NO_MOVE = 0;
+
+    static final int MAX_PLY = 128;
+
+    // Quiescence delta pruning: a capture is skipped if even winning its victim
+    // outright, plus this margin, would leave the score below alpha
+    private static final int DELTA_MARGIN = 200;
+
+    // Half-width of the first aspiration window around the previous iteration's score
+    private static final int ASPIRATION_WINDOW = 25;
+
+    private static final int EVAL_SAMPLE_RATE = 64;
+
+    // Late move reductions by [depth][moves searched before], ln(d) * ln(m) / 2.25
+    private static final int[][] LMR = new int[64][64];
+    static {
+        for (int d = 1; d < 64; d++) {
+            for (int m = 1; m < 64; m++) LMR[d][m] = (int) (0.75 + Math.log(d) * Math.log(m) / 2.25);
+        }
+    }
+
+    /**
+     * Switches for the selective techniques, plus the choice of static evaluation
+     * ({@code nnue}: the neural {@link NnueEvaluator} instead of the classical
+     * one, when weights are installed; see {@link Network}). The defaults can be overridden with
+     * -Dchess.search.pvs, -Dchess.search.nullMove, -Dchess.search.lmr,
+     * -Dchess.search.aspiration and -Dchess.search.nnue (true/false; NNUE is off
+     * unless asked for).
+     */
+    public record Options(boolean pvs, boolean nullMove, boolean lmr, boolean aspiration, boolean nnue) {
+        public static final Options DEFAULT = new Options(
+                flag("chess.search.pvs", true), flag("chess.search.nullMove", true),
+                flag("chess.search.lmr", true), flag("chess.search.aspiration", true),
+                flag("chess.search.nnue", false));
+        public static final Options NONE = new Options(false, false, false, false, false);
+
+        private static boolean flag(String property, boolean fallback) {
+            return Boolean.parseBoolean(System.getProperty(property, Boolean.toString(fallback)));
+        }
+    }
+
+    /** Outcome of {@link #search}: best move of the last completed iteration. */
+    public record Result(int move, int score, int depth, long nodes, long millis, Stats stats) { }
+
+    /**
+     * Search counters. {@code firstMoveCutoffs} counts the beta cutoffs caused by
+     * the first move searched at a node: its share of all cutoffs measures move
+     * ordering quality (well-ordered searches reach 90% and more). The pawn
+     * counters are the probes and hits of the pawn-structure cache, the eval
+     * counters those of the {@link EvalCache}; {@code evalNanosSaved} estimates the
+     * evaluation time the hits avoided, from the timing of a sample of the misses.
+     */
+    public record Stats(long cutoffs, long firstMoveCutoffs, long pawnProbes, long pawnHits,
+                        long evalProbes, long evalHits, long evalNanosSaved) {
+        public static final Stats EMPTY = new Stats(0, 0, 0, 0, 0, 0, 0);
+
+        public double firstMoveCutoffRate() {
+            return cutoffs == 0 ? 0.0 : (double) firstMoveCutoffs / cutoffs;
+        }
+
+        public double pawnHitRate() {
+            return pawnProbes == 0 ? 0.0 : (double) pawnHits / pawnProbes;
+        }
+
+        public double evalHitRate() {
+            return evalProbes == 0 ? 0.0 : (double) evalHits / evalProbes;
+        }
+
+        public Stats plus(Stats o) {
+            return new Stats(cutoffs + o.cutoffs, firstMoveCutoffs + o.firstMoveCutoffs,
+                    pawnProbes + o.pawnProbes, pawnHits + o.pawnHits,
+                    evalProbes + o.evalProbes, evalHits + o.evalHits, evalNanosSaved + o.evalNanosSaved);
+        }
+    }
+
+    private final Game game;
+    private final TranspositionTable tt;
+    private final MoveOrdering ordering;
+    private final Options options;
+    // Material + piece-square sums of the game's board, updated as moves are made;
+    // or, with Options.nnue, the network's accumulators (eval then stays detached)
+    private final IncrementalEvaluator eval = new IncrementalEvaluator();
+    private final NnueEvaluator nnue;
+    private final EvalCache evalCache;
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    // Move played at each ply of the current line (countermove lookups) and the
+    // quiet moves searched at each ply (history penalties on a cutoff)
+    private final int[] playedMoves = new int[MAX_PLY];
+    private final MoveList[] quietsTried = new MoveList[MAX_PLY];
+
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+    private long nodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long evalProbes;
+    private long evalHits;
+    // One cache miss in EVAL_SAMPLE_RATE is timed, to price the hits
+    private long evalSamples;
+    private long evalSampleNanos;
+
+    // Lazy SMP helpers search one ply deeper on odd indices and ignore the soft time limit
+    private int depthOffset = 0;
+    private boolean helper = false;
+
+    public Search(Game game, TranspositionTable tt) {
+        this(game, tt, new MoveOrdering(), Options.DEFAULT);
+    }
+
+    /** Search ordering quiet moves with (and updating) {@code ordering}, with a cache of its own. */
+    public Search(Game game, TranspositionTable tt, MoveOrdering ordering, Options options) {
+        this(game, tt, new EvalCache(), ordering, options);
+    }
+
+    /**
+     * As above, caching static evaluations in {@code evalCache}, which may be shared
+     * with other searches that use the same evaluation (see {@link Options#nnue}).
+     */
+    public Search(Game game, TranspositionTable tt, EvalCache evalCache, MoveOrdering ordering,
+                  Options options) {
+        this.game = game;
+        this.tt = tt;
+        this.evalCache = evalCache;
+        this.ordering = ordering;
+        this.options = options;
+        Network net = options.nnue() ? Network.defaultNetwork() : null;
+        if (net != null) {
+            nnue = new NnueEvaluator(net);
+            nnue.attach(game.board());
+        } else {
+            nnue = null;
+            eval.attach(game.board());
+        }
+        for (int i = 0; i < MAX_PLY; i++) {
+            pickers[i] = new MovePicker(game, ordering);
+            quietsTried[i] = new MoveList();
+        }
+    }
+
+    /** Turns this instance into Lazy SMP helper number {@code index} (1..N-1). */
+    void makeHelper(int index) {
+        this.helper = true;
+        this.depthOffset = index & 1;
+    }
+
+    /**
+     * Asks a running (or not yet started) {@link #search} to unwind as soon as
+     * possible. Thread-safe; the request is never cleared, so use a new instance.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /** Nodes visited by the last search (read after it returns). */
+    public long nodes() {
+        return nodes;
+    }
+
+    /** Counters of the last search (read after it returns). */
+    public Stats stats() {
+        PawnHashTable pawns = eval.pawnTable();
+        long saved = evalSamples == 0 ? 0 : evalHits * evalSampleNanos / evalSamples;
+        return new Stats(cutoffs, firstMoveCutoffs, pawns.probes(), pawns.hits(), evalProbes, evalHits, saved);
+    }
+
+    // --------- Iterative deepening ----------
+    /**
+     * Searches depth 1, 2, ... up to {@code maxDepth} until the budget runs out.
+     * An iteration interrupted by the clock is discarded; a new iteration is not
+     * started once half the budget is spent, since it would almost never finish.
+     *
+     * With aspiration windows, iterations from depth 4 on start with a narrow
+     * window around the previous score and widen it on the side that failed.
+     */
+    public Result search(int maxDepth, long budgetMillis) {
+        long start = System.nanoTime();
+        long budget = budgetMillis * 1_000_000L;
+        deadline = start + budget;
+        aborted = false;
+        nodes = cutoffs = firstMoveCutoffs = 0;
+        evalProbes = evalHits = evalSamples = evalSampleNanos = 0;
+        ordering.newSearch();
+        eval.pawnTable().resetStats();
+
+        MoveList root = new MoveList();
+        game.generateLegalMoves(root);
+        int n = root.size();
+        if (n == 0) return new Result(NO_MOVE, 0, 0, 0, 0, Stats.EMPTY);
+
+        int bestMove = root.get(0);
+        int bestScore = -INFINITY;
+        int completed = 0;
+
+        for (int iteration = 1; iteration <= maxDepth; iteration++) {
+            int depth = Math.min(iteration + depthOffset, maxDepth);
+            int delta = ASPIRATION_WINDOW;
+            int alpha = -INFINITY, beta = INFINITY;
+            if (options.aspiration() && depth >= 4 && Math.abs(bestScore) < MATE - MAX_PLY) {
+                alpha = bestScore - delta;
+                beta = bestScore + delta;
+            }
+
+            int iterScore;
+            while (true) {
+                iterScore = searchRoot(root, depth, alpha, beta);
+                if (aborted) break;
+                if (iterScore <= alpha && alpha > -INFINITY) {
+                    delta *= 2;
+                    alpha = delta > 1000 ? -INFINITY : Math.max(-INFINITY, iterScore - delta);
+                } else if (iterScore >= beta && beta < INFINITY) {
+                    delta *= 2;
+                    beta = delta > 1000 ? INFINITY : Math.min(INFINITY, iterScore + delta);
+                } else {
+                    break;
+                }
+            }
+            if (aborted) break;
+
+            bestMove = rootBestMove;
+            bestScore = iterScore;
+            completed = depth;
+            tt.store(game.zobristKey(), bestMove, bestScore, depth, TranspositionTable.EXACT, 0);
+            root.moveToFront(bestMove); // PV move first in the next iteration
+
+            if (helper) continue;                                       // helpers run until stopped
+            if (Math.abs(bestScore) >= MATE - MAX_PLY) break;          // forced mate found
+            if (System.nanoTime() - start > budget / 2) break;
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+        return new Result(bestMove, bestScore, completed, nodes, millis, stats());
+    }
+
+    // Best move found by the last searchRoot call
+    private int rootBestMove;
+
+    // Searches the root moves within (alpha, beta); the first one with a full window,
+    // the others (with PVS) with a null window, re-searched if they beat alpha
+    private int searchRoot(MoveList root, int depth, int alpha, int beta) {
+        int best = -INFINITY;
+        rootBestMove = root.get(0);
+        for (int i = 0; i < root.size(); i++) {
+            int m = root.get(i);
+            playedMoves[0] = m;
+            game.makeMove(m);
+            int score;
+            if (i == 0 || !options.pvs()) {
+                score = -negamax(depth - 1, -beta, -alpha, 1, true);
+            } else {
+                score = -negamax(depth - 1, -alpha - 1, -alpha, 1, true);
+                if (score > alpha && score < beta) score = -negamax(depth - 1, -beta, -alpha, 1, true);
+            }
+            game.unmakeMove();
+            if (aborted) return 0;
+
+            if (score > best) {
+                best = score;
+                rootBestMove = m;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply, boolean allowNull) {
+        if ((++nodes & 1023) == 0 && (stopRequested || System.nanoTime() > deadline)) aborted = true;
+        if (aborted) return 0;
+
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescence(alpha, beta, ply);
+        }
+
+        // Transposition table: cutoff on a deep enough bound, otherwise reuse its move
+        long key = game.zobristKey();
+        long entry = tt.probe(key);
+        int ttMove = NO_MOVE;
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int s = TranspositionTable.score(entry, ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && s >= beta)
+                        || (bound == TranspositionTable.UPPER && s <= alpha)) {
+                    return s;
+                }
+            }
+        }
+
+        boolean us = game.whiteToMove();
+        boolean inCheck = game.inCheck(us);
+        boolean pvNode = beta - alpha > 1;
+
+        // Null move: if passing the turn still fails high on a reduced search, a real
+        // move almost surely would too. Unsound in zugzwang, hence never in check or
+        // when the side to move is down to king and pawns.
+        if (options.nullMove() && allowNull && !pvNode && !inCheck && depth >= 3
+                && hasPieces(us) && evaluate() >= beta) {
+            int r = 2 + depth / 4;
+            playedMoves[ply] = NO_MOVE;
+            game.makeNullMove();
+            int score = -negamax(depth - 1 - r, -beta, -beta + 1, ply + 1, false);
+            game.unmakeNullMove();
+            if (aborted) return 0;
+            if (score >= beta) return score >= MATE - MAX_PLY ? beta : score; // unproven mates are not trusted
+        }
+
+        MovePicker picker = pickers[ply];
+        MoveList quiets = quietsTried[ply];
+        picker.reset(ttMove, ply, playedMoves[ply - 1]);
+        quiets.clear();
+
+        int alphaOrig = alpha;
+        int best = -INFINITY;
+        int bestMove = NO_MOVE;
+        int searched = 0;
+        int m;
+        while ((m = picker.next()) != NO_MOVE) {
+            boolean quiet = !MovePicker.isNoisy(m);
+            playedMoves[ply] = m;
+            game.makeMove(m);
+            int score;
+            if (searched == 0) {
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                // Late quiet moves (not in or giving check) are first searched shallower;
+                // a reduced score above alpha is verified at full depth
+                int r = 0;
+                if (options.lmr() && quiet && depth >= 3 && searched >= 3 && !inCheck
+                        && !game.inCheck(game.whiteToMove())) {
+                    r = Math.min(LMR[Math.min(depth, 63)][Math.min(searched, 63)], depth - 2);
+                }
+                score = alpha + 1;
+                if (r > 0) score = -negamax(depth - 1 - r, -alpha - 1, -alpha, ply + 1, true);
+                // PVS: a null window proves the move no better than alpha; only a move
+                // that beats it inside (alpha, beta) needs the full window
+                if (score > alpha && options.pvs()) score = -negamax(depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                if (score > alpha && (score < beta || !options.pvs())) {
+                    score = -negamax(depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            game.unmakeMove();
+            if (aborted) return 0;
+            if (quiet) quiets.add(m);
+
+            if (score > best) {
+                best = score;
+                bestMove = m;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        cutoffs++;
+                        if (searched == 0) firstMoveCutoffs++;
+                        if (quiet) {
+                            ordering.onQuietCutoff(us, ply, depth,
+                                    playedMoves[ply - 1], m, quiets);
+                        }
+                        break;
+                    }
+                }
+            }
+            searched++;
+        }
+        if (bestMove == NO_MOVE) {
+            // No legal move: checkmate (prefer the shortest) or stalemate
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > alphaOrig ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        tt.store(key, bound == TranspositionTable.UPPER ? NO_MOVE : bestMove, best, depth, bound, ply);
+        return best;
+    }
+
+    /**
+     * Walks the game to the quiet position behind the current one, for evaluation
+     * tuning: (re)attaches the evaluation to the game's current board (so the game
+     * may have loaded another position since), then plays the principal variation
+     * of {@link #quiescence}, one best reply at a time, until standing pat is best.
+     * The static evaluation of the final position is the quiescence score of the
+     * starting one. Returns false if the line ends in checkmate.
+     */
+    public boolean resolveQuiet() {
+        if (nnue != null) nnue.attach(game.board()); else eval.attach(game.board());
+        deadline = Long.MAX_VALUE;
+        aborted = false;
+        for (int played = 0; played < MAX_PLY / 2; played++) {
+            boolean inCheck = game.inCheck(game.whiteToMove());
+            int best = inCheck ? -INFINITY : evaluate();
+            int bestMove = NO_MOVE;
+            MovePicker picker = pickers[0];
+            if (inCheck) picker.resetAll(); else picker.resetCaptures();
+            int m;
+            while ((m = picker.next()) != NO_MOVE) {
+                if (!inCheck && game.see(m) < 0) continue;
+                game.makeMove(m);
+                int score = -quiescence(-INFINITY, -best, 1);
+                game.unmakeMove();
+                if (score > best) {
+                    best = score;
+                    bestMove = m;
+                }
+            }
+            if (bestMove == NO_MOVE) return !inCheck;
+            game.makeMove(bestMove);
+        }
+        return true;
+    }
+
+    /**
+     * Searches only captures and promotions until the position is quiet, so the
+     * score at the horizon is not taken in the middle of an exchange.
+     *
+     * The side to move may "stand pat" on the static evaluation, since it is not
+     * forced to capture. Captures that cannot lift the score to alpha even if the
+     * victim were won for free (delta pruning) or that lose material by static
+     * exchange evaluation ({@link Game#see}) are skipped. In check every evasion
+     * is searched instead, and having none is mate.
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        if ((++nodes & 1023) == 0 && (stopRequested || System.nanoTime() > deadline)) aborted = true;
+        if (aborted) return 0;
+
+        boolean inCheck = game.inCheck(game.whiteToMove());
+        int best = -INFINITY;
+        int standPat = 0;
+        if (!inCheck) {
+            standPat = evaluate();
+            if (standPat >= beta || ply >= MAX_PLY - 1) return standPat;
+            if (standPat > alpha) alpha = standPat;
+            best = standPat;
+        } else if (ply >= MAX_PLY - 1) {
+            return evaluate();
+        }
+
+        MovePicker picker = pickers[ply];
+        if (inCheck) {
+            picker.resetAll();
+        } else {
+            picker.resetCaptures();
+        }
+
+        int m;
+        while ((m = picker.next()) != NO_MOVE) {
+            if (!inCheck) {
+                if (PackedMove.promotion(m) == 0 && standPat + victimValue(m) + DELTA_MARGIN <= alpha) continue;
+                if (game.see(m) < 0) continue;
+            }
+            game.makeMove(m);
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            game.unmakeMove();
+            if (aborted) return 0;
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+        if (inCheck && best == -INFINITY) return -MATE + ply;
+        return best;
+    }
+
+    // Static evaluation of the current position for the side to move, cached by key
+    private int evaluate() {
+        long key = game.zobristKey();
+        int score = evalCache.probe(key);
+        evalProbes++;
+        if (score != EvalCache.MISS) {
+            evalHits++;
+            return score;
+        }
+        if ((evalProbes - evalHits) % EVAL_SAMPLE_RATE == 1) {
+            long start = System.nanoTime();
+            score = staticEvaluation();
+            evalSampleNanos += System.nanoTime() - start;
+            evalSamples++;
+        } else {
+            score = staticEvaluation();
+        }
+        evalCache.store(key, score);
+        return score;
+    }
+
+    private int staticEvaluation() {
+        if (nnue != null) {
+            assert nnue.verify() : "NNUE accumulators drifted";
+            return nnue.evaluate(game.whiteToMove());
+        }
+        assert eval.verify() : "incremental evaluation drifted";
+        return eval.evaluate(game.whiteToMove());
+    }
+
+    // Pieces other than king and pawns (from the piece list, which holds the king too)
+    private boolean hasPieces(boolean white) {
+        return game.board().pieces(white).size() > 1 + Long.bitCount(game.board().bitboard(Piece.PAWN, white));
+    }
+
+    private int victimValue(int move) {
+        if (PackedMove.isEnPassant(move)) return Evaluator.PIECE_VALUE[Piece.PAWN];
+        return Evaluator.PIECE_VALUE[game.board().get(PackedMove.to(move)).getType()];
+    }
+}
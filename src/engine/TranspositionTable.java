@@ -0,0 +1,150 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table stored in a single {@code long[]}, so entries
+ * cost no objects and no GC work.
+ *
+ * The table is split into buckets of two entries: slot 0 is depth-preferred
+ * (replaced only by a deeper search or an entry from an older search), slot 1 is
+ * always replaced. Each entry is two longs: the Zobrist key XOR the data word,
+ * and the packed data word itself:
+ * <pre>
+ *   bits  0-15  move (PackedMove, flags above bit 15 dropped)
+ *   bits 16-47  score (signed int)
+ *   bits 48-55  depth
+ *   bits 56-57  bound (EXACT, LOWER, UPPER)
+ *   bits 58-63  search generation
+ * </pre>
+ * A probe returns the data word, or 0 on a miss (a stored entry never packs to 0
+ * because its bound is non-zero).
+ *
+ * The table is shared by all search threads without locks. A reader accepts an
+ * entry only if {@code (first ^ second) == key}; a slot torn by two racing writers
+ * fails that check and is treated as a miss, so no synchronization is needed.
+ */
+public final class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;  // fail-high: score is a lower bound
+    public static final int UPPER = 3;  // fail-low: score is an upper bound
+
+    private static final int LONGS_PER_BUCKET = 4;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    private long[] table;
+    private int bucketMask;
+    private int generation;
+
+    public TranspositionTable(int megabytes) {
+        resize(megabytes);
+    }
+
+    /** Reallocates the table with (at most) the given size in MB, rounded down to a power of two. */
+    public void resize(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long buckets = Long.highestOneBit(Math.max(1, bytes / BYTES_PER_BUCKET));
+        buckets = Math.min(buckets, Integer.MAX_VALUE / LONGS_PER_BUCKET + 1L);
+        table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        bucketMask = (int) (buckets - 1);
+        generation = 0;
+    }
+
+    public int sizeMb() {
+        return (int) ((long) table.length * Long.BYTES / (1024 * 1024));
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    /** Starts a new search: older entries become preferred victims for replacement. */
+    public void newSearch() {
+        generation = (generation + 1) & 63;
+    }
+
+    private int bucket(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * LONGS_PER_BUCKET;
+    }
+
+    /** Data word for {@code key}, or 0 if not present. */
+    public long probe(long key) {
+        final long[] t = table;
+        int b = bucket(key);
+        long data = t[b + 1];
+        if (data != 0 && (t[b] ^ data) == key) return data;
+        data = t[b + 3];
+        if (data != 0 && (t[b + 2] ^ data) == key) return data;
+        return 0L;
+    }
+
+    /**
+     * Stores a search result. Mate scores are converted from "distance to root"
+     * to "distance to this node" so they stay valid when reached at another ply.
+     */
+    public void store(long key, int move, int score, int depth, int bound, int ply) {
+        final long[] t = table;
+        long data = pack(move, toStored(score, ply), depth, bound, generation);
+        int b = bucket(key);
+
+        long old = t[b + 1];
+        boolean sameKey = (t[b] ^ old) == key;
+        if (old == 0 || sameKey || depth >= depth(old) || generation(old) != generation) {
+            // keep the previous best move if this result has none
+            if (sameKey && move == Search.NO_MOVE) data = withMove(data, move(old));
+            t[b] = key ^ data;
+            t[b + 1] = data;
+        } else {
+            long old2 = t[b + 3];
+            if ((t[b + 2] ^ old2) == key && move == Search.NO_MOVE) data = withMove(data, move(old2));
+            t[b + 2] = key ^ data;
+            t[b + 3] = data;
+        }
+    }
+
+    /** Approximate fill rate in permille (sampled over the first 1000 buckets). */
+    public int hashfull() {
+        int buckets = Math.min(1000, bucketMask + 1);
+        int used = 0;
+        for (int i = 0; i < buckets; i++) {
+            int b = i * LONGS_PER_BUCKET;
+            if (table[b + 1] != 0 && generation(table[b + 1]) == generation) used++;
+            if (table[b + 3] != 0 && generation(table[b + 3]) == generation) used++;
+        }
+        return used * 1000 / (buckets * 2);
+    }
+
+    // --------- Data word packing ----------
+    private static long pack(int move, int score, int depth, int bound, int generation) {
+        return (move & 0xFFFFL)
+                | ((score & 0xFFFFFFFFL) << 16)
+                | ((long) (depth & 0xFF) << 48)
+                | ((long) (bound & 3) << 56)
+                | ((long) (generation & 63) << 58);
+    }
+
+    private static long withMove(long data, int move) {
+        return (data & ~0xFFFFL) | (move & 0xFFFFL);
+    }
+
+    public static int move(long data) { return (int) (data & 0xFFFF); }
+    public static int depth(long data) { return (int) ((data >>> 48) & 0xFF); }
+    public static int bound(long data) { return (int) ((data >>> 56) & 3); }
+    private static int generation(long data) { return (int) (data >>> 58); }
+
+    /** Stored score adjusted back to a score relative to the root at {@code ply}. */
+    public static int score(long data, int ply) {
+        int s = (int) (data >>> 16);
+        if (s >= Search.MATE - 1000) return s - ply;
+        if (s <= -Search.MATE + 1000) return s + ply;
+        return s;
+    }
+
+    private static int toStored(int score, int ply) {
+        if (score >= Search.MATE - 1000) return score + ply;
+        if (score <= -Search.MATE + 1000) return score - ply;
+        return score;
+    }
+}
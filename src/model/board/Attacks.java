@@ -0,0 +1,208 @@
+// ========================= src/model/board/Attacks.java =========================
+package model.board;
+
+/**
+ * Máscaras de ataque sobre os bitboards do {@link Board} (casa = row * 8 + column).
+ * Tudo é pré-calculado na carga da classe: saltadores (cavalo, rei, peão), as
+ * tabelas entre/linha e os deslizantes por "magic bitboards" — os bloqueadores
+ * relevantes de uma casa, multiplicados por um número mágico e deslocados, dão o
+ * índice direto da máscara de ataque numa tabela por casa.
+ *
+ * Os números mágicos abaixo foram achados por busca aleatória para esta numeração
+ * de casas (as tabelas publicadas assumem a1 = 0; aqui a casa 0 é a8).
+ */
+public final class Attacks {
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64]; // [0] brancas, [1] pretas
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static final int[][] KNIGHT_STEPS = {{-2,-1},{-2,1},{-1,-2},{-1,2},{1,-2},{1,2},{2,-1},{2,1}};
+    private static final int[][] KING_STEPS = {{-1,-1},{-1,0},{-1,1},{0,-1},{0,1},{1,-1},{1,0},{1,1}};
+    private static final int[][] ROOK_DIRS = {{-1,0},{1,0},{0,-1},{0,1}};
+    private static final int[][] BISHOP_DIRS = {{-1,-1},{-1,1},{1,-1},{1,1}};
+
+    // Magic bitboards: máscara de bloqueadores, número mágico, deslocamento e
+    // início do trecho da casa na tabela de ataques
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] ROOK_MAGIC = {
+        0x7080024000108620L, 0x0040200010004000L, 0x0100081020004500L, 0x3880048110000801L,
+        0x4200200200080410L, 0x2400900400082002L, 0x45000B000F860004L, 0x220004038040A116L,
+        0x010280002084400AL, 0x0026402004401000L, 0x0045002002110048L, 0x0043002300100009L,
+        0x004280801C002800L, 0x4001800401801200L, 0x1005000411000200L, 0x408100120040A100L,
+        0x0160808000401020L, 0x0020004008205000L, 0x0000430010200300L, 0x4001818008005000L,
+        0x1D04008008008004L, 0x6002080110204004L, 0x2009040001081002L, 0x8094020020804401L,
+        0x00C00049800080A7L, 0x80015000C0002000L, 0xC000220200108040L, 0x00A8018480100108L,
+        0x0818008080080401L, 0x0A00040080020080L, 0x1A01080400104A31L, 0x000200A200011044L,
+        0x4080006001400040L, 0x240080400C802000L, 0x880500104100200AL, 0x0C02002012004008L,
+        0x0000800800800401L, 0x0402002004040010L, 0x0A06888104001002L, 0x01A0A400A2000041L,
+        0x00C0008000428022L, 0x5048C0E010054000L, 0x0010012000848011L, 0x0004100209010020L,
+        0x8000040008008080L, 0x2C08020004008080L, 0x0800020841040010L, 0x0006004408820019L,
+        0x1010400030800180L, 0x0280882000400880L, 0x02810098A0004300L, 0x02E4914840220200L,
+        0xA094800802040080L, 0x00220010A8045200L, 0x8000810210080400L, 0x2004800100016280L,
+        0x0000201040800D01L, 0x00090010E0854001L, 0x0000090040200011L, 0x014B0008A4300121L,
+        0x1806002004100802L, 0x0883000400020801L, 0x00101CA228051004L, 0x0438088100402402L
+    };
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final int[] ROOK_OFFSET = new int[64];
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final long[] BISHOP_MAGIC = {
+        0x0229120802002200L, 0x00C4210809010800L, 0x080808210322020CL, 0x0628204040010201L,
+        0x0006021148000000L, 0x00008804C0040120L, 0x0040411048A0AC00L, 0x0000218218904002L,
+        0x4000091001020402L, 0xC004040410A42100L, 0x2224040800810608L, 0x0224044400800202L,
+        0x0080040420201000L, 0x2800010402410300L, 0x0000284814100882L, 0x0811010090900800L,
+        0x0840402424880602L, 0x00A00C4214142081L, 0x4990005E02801504L, 0x008C010802482841L,
+        0x1000821400A04038L, 0x01420054C9042000L, 0x2080405201700800L, 0x082200804A00C400L,
+        0x28040480C0100489L, 0x00041080841000C1L, 0x0224120174002400L, 0x0060124008004040L,
+        0x0011040082002101L, 0x080202802808900BL, 0x0004008101084110L, 0x4820408021008800L,
+        0x300608A000426200L, 0x30080808000401A0L, 0x050361880C300020L, 0x0082080800020A00L,
+        0x0040008208110100L, 0x0008882200644102L, 0x031004004800820EL, 0x0841441024110100L,
+        0x0089211820404004L, 0x0002013003110800L, 0x80D3A01050001800L, 0x0C00802014410801L,
+        0x800102020C000204L, 0x0004080048122100L, 0x00A0420200500200L, 0x0322080200360080L,
+        0x0816020282401008L, 0x0000840412428040L, 0x0108408404291024L, 0x0420080021981001L,
+        0x8000102020825004L, 0x110244A038024000L, 0x02502009040A8810L, 0x0032820404009000L,
+        0x0A88210100A0A004L, 0x1920060082211024L, 0x0010010100411000L, 0x4003084812104420L,
+        0x20800012D0020220L, 0x0600022004109086L, 0x2020080208082120L, 0x052444500C002080L
+    };
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final int[] BISHOP_OFFSET = new int[64];
+    private static final long[] BISHOP_TABLE;
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            int r = sq >>> 3, c = sq & 7;
+            KNIGHT[sq] = steps(r, c, KNIGHT_STEPS);
+            KING[sq] = steps(r, c, KING_STEPS);
+            PAWN[0][sq] = steps(r, c, new int[][]{{-1,-1},{-1,1}}); // brancas sobem (row--)
+            PAWN[1][sq] = steps(r, c, new int[][]{{1,-1},{1,1}});
+
+            // Entre/linha: percorre as 8 direções a partir de sq
+            for (int[] d : KING_STEPS) {
+                long ray = 0L;
+                long full = Board.bit(sq) | ray(r, c, d[0], d[1], 0L) | ray(r, c, -d[0], -d[1], 0L);
+                int rr = r + d[0], cc = c + d[1];
+                while (rr >= 0 && rr < 8 && cc >= 0 && cc < 8) {
+                    int to = Board.square(rr, cc);
+                    BETWEEN[sq][to] = ray;
+                    LINE[sq][to] = full;
+                    ray |= Board.bit(to);
+                    rr += d[0];
+                    cc += d[1];
+                }
+            }
+        }
+
+        ROOK_TABLE = initMagics(ROOK_DIRS, ROOK_MASK, ROOK_MAGIC, ROOK_SHIFT, ROOK_OFFSET);
+        BISHOP_TABLE = initMagics(BISHOP_DIRS, BISHOP_MASK, BISHOP_MAGIC, BISHOP_SHIFT, BISHOP_OFFSET);
+    }
+
+    private Attacks() { }
+
+    public static long knight(int sq) { return KNIGHT[sq]; }
+    public static long king(int sq) { return KING[sq]; }
+
+    /** Casas atacadas por um peão da cor dada em sq. */
+    public static long pawn(int sq, boolean white) { return PAWN[white ? 0 : 1][sq]; }
+
+    public static long rook(int sq, long occupied) {
+        int i = (int) (((occupied & ROOK_MASK[sq]) * ROOK_MAGIC[sq]) >>> ROOK_SHIFT[sq]);
+        return ROOK_TABLE[ROOK_OFFSET[sq] + i];
+    }
+
+    public static long bishop(int sq, long occupied) {
+        int i = (int) (((occupied & BISHOP_MASK[sq]) * BISHOP_MAGIC[sq]) >>> BISHOP_SHIFT[sq]);
+        return BISHOP_TABLE[BISHOP_OFFSET[sq] + i];
+    }
+
+    public static long queen(int sq, long occupied) {
+        return rook(sq, occupied) | bishop(sq, occupied);
+    }
+
+    /** Casas estritamente entre a e b, se alinhadas (linha, coluna ou diagonal); senão 0. */
+    public static long between(int a, int b) { return BETWEEN[a][b]; }
+
+    /** Linha inteira (de borda a borda) que passa por a e b, se alinhadas; senão 0. */
+    public static long line(int a, int b) { return LINE[a][b]; }
+
+    private static long steps(int r, int c, int[][] deltas) {
+        long m = 0L;
+        for (int[] d : deltas) {
+            int rr = r + d[0], cc = c + d[1];
+            if (rr >= 0 && rr < 8 && cc >= 0 && cc < 8) m |= Board.bit(Board.square(rr, cc));
+        }
+        return m;
+    }
+
+    /**
+     * Preenche a tabela de ataques de todas as casas em sequência (OFFSET marca o
+     * início de cada uma), enumerando os subconjuntos da máscara de bloqueadores.
+     */
+    private static long[] initMagics(int[][] dirs, long[] masks, long[] magics, int[] shifts, int[] offsets) {
+        int total = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            masks[sq] = relevantBlockers(sq, dirs);
+            shifts[sq] = 64 - Long.bitCount(masks[sq]);
+            offsets[sq] = total;
+            total += 1 << Long.bitCount(masks[sq]);
+        }
+
+        long[] table = new long[total];
+        for (int sq = 0; sq < 64; sq++) {
+            long mask = masks[sq];
+            long subset = 0L;
+            do {
+                int i = offsets[sq] + (int) ((subset * magics[sq]) >>> shifts[sq]);
+                long attack = slide(sq, subset, dirs);
+                if (table[i] != 0L && table[i] != attack) {
+                    throw new IllegalStateException("Número mágico inválido na casa " + sq);
+                }
+                table[i] = attack;
+                subset = (subset - mask) & mask; // próximo subconjunto (carry-rippler)
+            } while (subset != 0L);
+        }
+        return table;
+    }
+
+    // Casas cuja ocupação altera o ataque: os raios sem a última casa (a borda)
+    private static long relevantBlockers(int sq, int[][] dirs) {
+        int r0 = sq >>> 3, c0 = sq & 7;
+        long m = 0L;
+        for (int[] d : dirs) {
+            int r = r0 + d[0], c = c0 + d[1];
+            while (r + d[0] >= 0 && r + d[0] < 8 && c + d[1] >= 0 && c + d[1] < 8) {
+                m |= Board.bit(Board.square(r, c));
+                r += d[0];
+                c += d[1];
+            }
+        }
+        return m;
+    }
+
+    // Ataque de referência (percorrendo os raios), usado só para montar as tabelas
+    private static long slide(int sq, long occupied, int[][] dirs) {
+        int r = sq >>> 3, c = sq & 7;
+        long m = 0L;
+        for (int[] d : dirs) m |= ray(r, c, d[0], d[1], occupied);
+        return m;
+    }
+
+    // Raio a partir de (r,c), exclusive, até a borda ou a primeira casa ocupada (inclusive)
+    private static long ray(int r, int c, int dr, int dc, long occupied) {
+        long m = 0L;
+        r += dr;
+        c += dc;
+        while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+            long b = Board.bit(Board.square(r, c));
+            m |= b;
+            if ((occupied & b) != 0) break;
+            r += dr;
+            c += dc;
+        }
+        return m;
+    }
+}
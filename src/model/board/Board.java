@@ -1,13 +1,77 @@
 // ========================= src/model/board/Board.java =========================
 package model.board;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 import model.pieces.Piece;
 
+/**
+ * Tabuleiro baseado em bitboards.
+ *
+ * Casas são indexadas de 0..63 como {@code row * 8 + column} (0 = a8, 63 = h1),
+ * seguindo a mesma orientação de {@link Position}. Além do vetor de peças por casa
+ * (usado por get/set), mantemos 12 máscaras de 64 bits (tipo x cor), as máscaras
+ * de ocupação por cor e a ocupação total, para consultas via popcount/bitscan.
+ * Cada cor tem ainda uma lista de casas ocupadas, mantida em set/remove, que
+ * sustenta {@link #pieces(boolean)} sem varrer o tabuleiro nem alocar.
+ *
+ * Opcionalmente ({@link #setAttackTracking(boolean)}) o tabuleiro mantém também,
+ * para cada cor, quantas peças atacam cada casa. A cada set/remove só mudam os
+ * ataques da própria peça e os raios de torres/bispos/damas que passam pela casa
+ * alterada, de modo que {@link #attackCount(boolean, int)} responde em O(1).
+ *
+ * Um {@link BoardListener} (opcional) é avisado de cada peça colocada ou retirada,
+ * para quem mantém estado derivado do tabuleiro de forma incremental.
+ */
 public class Board {
 
-    private final Piece[][] grid = new Piece[8][8];
+    private final Piece[] squares = new Piece[64];
+
+    // índice = tipo (Piece.PAWN..Piece.KING) + (branca ? 0 : 6)
+    private final long[] bitboards = new long[12];
+    private long whiteOccupancy;
+    private long blackOccupancy;
+
+    // XOR das chaves de Zobrist de cada (peça, casa) ocupada
+    private long zobristKey;
+    // Idem, só dos peões (chave da tabela de estrutura de peões)
+    private long pawnKey;
+
+    // Casas ocupadas por cor ([0] brancas, [1] pretas), em ordem de chegada;
+    // listSlot[sq] é o índice de sq na lista da sua cor (remoção O(1) trocando com a última)
+    private final int[][] pieceSquares = new int[2][64];
+    private final int[] pieceCount = new int[2];
+    private final int[] listSlot = new int[64];
+    private final List<Piece> whitePieces = new PieceList(0);
+    private final List<Piece> blackPieces = new PieceList(1);
+
+    // Contagem de atacantes por casa ([0] brancas, [1] pretas); válida só com trackAttacks
+    private final int[][] attackCounts = new int[2][64];
+    private boolean trackAttacks;
+
+    // Avisado a cada peça colocada/retirada (ou null)
+    private BoardListener listener;
+
+    /** Índice 0..63 de uma casa (row * 8 + column). */
+    public static int square(int row, int column) {
+        return (row << 3) | column;
+    }
+
+    /** Índice 0..63 de uma posição válida. */
+    public static int square(Position p) {
+        return p.index();
+    }
+
+    /** Máscara com apenas o bit da casa informada. */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    private static int index(int type, boolean white) {
+        return white ? type : type + 6;
+    }
 
     /** Verifica se a posição está dentro do tabuleiro (0..7). */
     public boolean isInside(Position p) {
@@ -16,7 +80,12 @@ public class Board {
 
     /** Retorna a peça na posição ou null se vazio/fora. */
     public Piece get(Position p) {
-        return isInside(p) ? grid[p.getRow()][p.getColumn()] : null;
+        return isInside(p) ? squares[square(p)] : null;
+    }
+
+    /** Retorna a peça na casa 0..63 (sem validação de limites). */
+    public Piece get(int square) {
+        return squares[square];
     }
 
     /**
@@ -25,19 +94,15 @@ public class Board {
      */
     public void set(Position p, Piece piece) {
         if (!isInside(p)) return;
-        grid[p.getRow()][p.getColumn()] = piece;
-        if (piece != null) {
-            // Mantém referência de posição da peça sincronizada
-            piece.setPosition(p);
-        }
+        int sq = square(p);
+        clearSquare(sq);
+        if (piece != null) putSquare(sq, piece);
     }
 
     /** Remove e retorna a peça da posição (ou null). */
     public Piece remove(Position p) {
         if (!isInside(p)) return null;
-        Piece old = grid[p.getRow()][p.getColumn()];
-        grid[p.getRow()][p.getColumn()] = null;
-        return old;
+        return clearSquare(square(p));
     }
 
     /** Retorna true se a posição estiver vazia. */
@@ -52,23 +117,34 @@ public class Board {
 
     /** Limpa completamente o tabuleiro. */
     public void clear() {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                grid[r][c] = null;
-            }
+        for (int sq = 0; sq < 64; sq++) {
+            if (listener != null && squares[sq] != null) listener.pieceRemoved(squares[sq], sq);
+            squares[sq] = null;
+        }
+        for (int i = 0; i < 12; i++) {
+            bitboards[i] = 0L;
         }
+        whiteOccupancy = 0L;
+        blackOccupancy = 0L;
+        zobristKey = 0L;
+        pawnKey = 0L;
+        pieceCount[0] = pieceCount[1] = 0;
+        Arrays.fill(attackCounts[0], 0);
+        Arrays.fill(attackCounts[1], 0);
     }
 
-    /** Lista todas as peças de uma cor. */
+    /**
+     * Peças de uma cor: visão somente leitura e "ao vivo" (O(1), sem alocar) das
+     * listas mantidas pelo tabuleiro. Reflete cada set/remove, portanto copie
+     * ({@code new ArrayList<>(...)}) antes de alterar o tabuleiro durante a iteração.
+     */
     public List<Piece> pieces(boolean white) {
-        List<Piece> out = new ArrayList<>();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece pc = grid[r][c];
-                if (pc != null && pc.isWhite() == white) out.add(pc);
-            }
-        }
-        return out;
+        return white ? whitePieces : blackPieces;
+    }
+
+    /** Casa 0..63 da peça {@code pieces(white).get(index)}. */
+    public int pieceSquare(boolean white, int index) {
+        return pieceSquares[white ? 0 : 1][index];
     }
 
     /** Alias conveniente (evita divergência de nomes em outras classes). */
@@ -76,23 +152,213 @@ public class Board {
         return pieces(white);
     }
 
+    // --------- Máscaras (bitboards) ----------
+
+    /** Máscara das casas ocupadas por peças de um tipo (Piece.PAWN..Piece.KING) e cor. */
+    public long bitboard(int type, boolean white) {
+        return bitboards[index(type, white)];
+    }
+
+    /** Máscara das casas ocupadas por uma cor. */
+    public long occupancy(boolean white) {
+        return white ? whiteOccupancy : blackOccupancy;
+    }
+
+    /** Máscara de todas as casas ocupadas. */
+    public long occupancy() {
+        return whiteOccupancy | blackOccupancy;
+    }
+
+    /** Quantidade de peças de um tipo e cor (popcount). */
+    public int count(int type, boolean white) {
+        return Long.bitCount(bitboards[index(type, white)]);
+    }
+
+    /**
+     * Parte da chave de Zobrist referente às peças (atualizada em set/remove).
+     * Lado a jogar, roque e en passant ficam a cargo de quem controla o jogo.
+     */
+    public long zobristKey() {
+        return zobristKey;
+    }
+
+    /** Chave de Zobrist só dos peões das duas cores (muda apenas em lances de peão e capturas de peão). */
+    public long pawnKey() {
+        return pawnKey;
+    }
+
+    // --------- Mapas de ataque (opcionais) ----------
+
     /**
-     * Cópia profunda do tabuleiro (clona peças para o novo Board).
-     * Requer que Piece.copyFor(b) crie uma nova peça já associada ao Board b,
-     * preservando cor/estado (ex.: moved) e que aqui definimos a Position corretamente.
+     * Liga/desliga a manutenção incremental das contagens de ataque. Ao ligar, as
+     * contagens são recalculadas do zero; desligado, set/remove não pagam nada a mais.
+     */
+    public void setAttackTracking(boolean enabled) {
+        if (enabled && !trackAttacks) rebuildAttacks();
+        trackAttacks = enabled;
+    }
+
+    public boolean isAttackTracking() {
+        return trackAttacks;
+    }
+
+    /** Quantas peças da cor informada atacam a casa 0..63 (requer attack tracking). */
+    public int attackCount(boolean byWhite, int square) {
+        return attackCounts[byWhite ? 0 : 1][square];
+    }
+
+    /** Casas atacadas por ao menos uma peça da cor (requer attack tracking). */
+    public long attackedSquares(boolean byWhite) {
+        int[] counts = attackCounts[byWhite ? 0 : 1];
+        long m = 0L;
+        for (int sq = 0; sq < 64; sq++) {
+            if (counts[sq] != 0) m |= bit(sq);
+        }
+        return m;
+    }
+
+    private void rebuildAttacks() {
+        Arrays.fill(attackCounts[0], 0);
+        Arrays.fill(attackCounts[1], 0);
+        long occ = occupancy();
+        while (occ != 0) {
+            int sq = Long.numberOfTrailingZeros(occ);
+            occ &= occ - 1;
+            addAttacks(squares[sq].isWhite(), squares[sq].attacks(this, sq), 1);
+        }
+    }
+
+
+    private void addAttacks(boolean white, long targets, int delta) {
+        int[] counts = attackCounts[white ? 0 : 1];
+        while (targets != 0) {
+            counts[Long.numberOfTrailingZeros(targets)] += delta;
+            targets &= targets - 1;
+        }
+    }
+
+    /**
+     * Ajusta os raios de deslizantes que chegam a sq: ao ocupar sq (delta = -1) eles
+     * deixam de ver as casas além dela; ao esvaziar (delta = +1) passam a vê-las.
+     */
+    private void updateSliderRays(int sq, int delta) {
+        long occ = occupancy();
+        long rookLike = bitboards[index(Piece.ROOK, true)] | bitboards[index(Piece.QUEEN, true)]
+                | bitboards[index(Piece.ROOK, false)] | bitboards[index(Piece.QUEEN, false)];
+        long bishopLike = bitboards[index(Piece.BISHOP, true)] | bitboards[index(Piece.QUEEN, true)]
+                | bitboards[index(Piece.BISHOP, false)] | bitboards[index(Piece.QUEEN, false)];
+        long sliders = (Attacks.rook(sq, occ) & rookLike) | (Attacks.bishop(sq, occ) & bishopLike);
+        if (sliders == 0) return;
+
+        long fromSq = Attacks.queen(sq, occ);
+        while (sliders != 0) {
+            int s = Long.numberOfTrailingZeros(sliders);
+            sliders &= sliders - 1;
+            long beyond = fromSq & Attacks.line(s, sq) & ~(Attacks.between(s, sq) | bit(s));
+            addAttacks(squares[s].isWhite(), beyond, delta);
+        }
+    }
+
+    /**
+     * Define o observador das alterações de peças (null remove). Só as alterações
+     * seguintes são avisadas: quem precisa do estado atual o calcula ao se registrar.
+     * Não é copiado por {@link #copy()}.
+     */
+    public void setListener(BoardListener listener) {
+        this.listener = listener;
+    }
+
+    public BoardListener listener() {
+        return listener;
+    }
+
+    /** Casa 0..63 do rei da cor informada, ou -1 se não houver rei. */
+    public int kingSquare(boolean white) {
+        long k = bitboards[index(Piece.KING, white)];
+        return k == 0 ? -1 : Long.numberOfTrailingZeros(k);
+    }
+
+    private Piece clearSquare(int sq) {
+        Piece old = squares[sq];
+        if (old != null) {
+            if (trackAttacks) addAttacks(old.isWhite(), old.attacks(this, sq), -1);
+            long mask = ~bit(sq);
+            bitboards[index(old.getType(), old.isWhite())] &= mask;
+            if (old.isWhite()) whiteOccupancy &= mask; else blackOccupancy &= mask;
+            zobristKey ^= Zobrist.piece(old, sq);
+            if (old.getType() == Piece.PAWN) pawnKey ^= Zobrist.piece(old, sq);
+            squares[sq] = null;
+
+            int color = old.isWhite() ? 0 : 1;
+            int last = pieceSquares[color][--pieceCount[color]];
+            pieceSquares[color][listSlot[sq]] = last;
+            listSlot[last] = listSlot[sq];
+
+            if (trackAttacks) updateSliderRays(sq, +1);
+            if (listener != null) listener.pieceRemoved(old, sq);
+        }
+        return old;
+    }
+
+    private void putSquare(int sq, Piece piece) {
+        if (trackAttacks) updateSliderRays(sq, -1);
+        long b = bit(sq);
+        squares[sq] = piece;
+        bitboards[index(piece.getType(), piece.isWhite())] |= b;
+        if (piece.isWhite()) whiteOccupancy |= b; else blackOccupancy |= b;
+        zobristKey ^= Zobrist.piece(piece, sq);
+        if (piece.getType() == Piece.PAWN) pawnKey ^= Zobrist.piece(piece, sq);
+
+        int color = piece.isWhite() ? 0 : 1;
+        listSlot[sq] = pieceCount[color];
+        pieceSquares[color][pieceCount[color]++] = sq;
+
+        if (trackAttacks) addAttacks(piece.isWhite(), piece.attacks(this, sq), 1);
+        if (listener != null) listener.pieceAdded(piece, sq);
+    }
+
+    /**
+     * Cópia do tabuleiro. As peças são flyweights imutáveis e compartilhadas, então
+     * basta copiar os vetores (casas, máscaras, listas e contagens).
      */
     public Board copy() {
         Board b = new Board();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = grid[r][c];
-                if (p != null) {
-                    Piece cp = p.copyFor(b);                 // nova peça ligada ao Board "b"
-                    b.grid[r][c] = cp;                       // atribui diretamente (evita set() duplicado)
-                    cp.setPosition(new Position(r, c));      // sincroniza a posição do clone
-                }
-            }
+        System.arraycopy(squares, 0, b.squares, 0, 64);
+        System.arraycopy(bitboards, 0, b.bitboards, 0, 12);
+        b.whiteOccupancy = whiteOccupancy;
+        b.blackOccupancy = blackOccupancy;
+        b.zobristKey = zobristKey;
+        b.pawnKey = pawnKey;
+        System.arraycopy(pieceSquares[0], 0, b.pieceSquares[0], 0, pieceCount[0]);
+        System.arraycopy(pieceSquares[1], 0, b.pieceSquares[1], 0, pieceCount[1]);
+        b.pieceCount[0] = pieceCount[0];
+        b.pieceCount[1] = pieceCount[1];
+        System.arraycopy(listSlot, 0, b.listSlot, 0, 64);
+        if (trackAttacks) {
+            System.arraycopy(attackCounts[0], 0, b.attackCounts[0], 0, 64);
+            System.arraycopy(attackCounts[1], 0, b.attackCounts[1], 0, 64);
+            b.trackAttacks = true;
         }
         return b;
     }
+
+    // Visão de lista sobre pieceSquares de uma cor
+    private final class PieceList extends AbstractList<Piece> implements RandomAccess {
+        private final int color;
+
+        PieceList(int color) {
+            this.color = color;
+        }
+
+        @Override
+        public Piece get(int i) {
+            if (i < 0 || i >= pieceCount[color]) throw new IndexOutOfBoundsException(i);
+            return squares[pieceSquares[color][i]];
+        }
+
+        @Override
+        public int size() {
+            return pieceCount[color];
+        }
+    }
 }
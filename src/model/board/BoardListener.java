@@ -0,0 +1,17 @@
+// ========================= src/model/board/BoardListener.java =========================
+package model.board;
+
+import model.pieces.Piece;
+
+/**
+ * Observador das alterações de peças de um {@link Board} (ver
+ * {@link Board#setListener}). Recebe cada peça que entra ou sai de uma casa, na
+ * ordem em que acontecem, o que basta para manter estado incremental fora do
+ * tabuleiro (por exemplo, uma avaliação por tabelas de peça-casa).
+ */
+public interface BoardListener {
+
+    void pieceAdded(Piece piece, int square);
+
+    void pieceRemoved(Piece piece, int square);
+}
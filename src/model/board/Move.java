@@ -91,4 +91,22 @@ public class Move {
         return new Move(from, to, king, null,
                 kingSide, !kingSide, false, null);
     }
+
+    /**
+     * Visão decodificada de um lance compactado ({@link PackedMove}), lida no
+     * tabuleiro ANTES de o lance ser jogado (peça movida e capturada).
+     */
+    public static Move fromPacked(int move, Board board) {
+        Position from = Position.of(PackedMove.from(move));
+        Position to = Position.of(PackedMove.to(move));
+        Piece moved = board.get(from);
+        if (PackedMove.isCastle(move)) {
+            return castle(from, to, moved, to.getColumn() > from.getColumn());
+        }
+        if (PackedMove.isEnPassant(move)) {
+            return enPassant(from, to, moved, board.get(Position.of(from.getRow(), to.getColumn())));
+        }
+        return new Move(from, to, moved, board.get(to), false, false, false,
+                PackedMove.promotionChar(move));
+    }
 }
@@ -0,0 +1,62 @@
+// ========================= src/model/board/MoveList.java =========================
+package model.board;
+
+/**
+ * Lista de lances compactados sobre um {@code int[]} pré-alocado.
+ * Pensada para ser reutilizada (um buffer por ply na busca/perft): clear() não aloca.
+ */
+public final class MoveList implements MoveSink {
+
+    /** Maior número de lances legais conhecido numa posição é 218. */
+    public static final int MAX_MOVES = 256;
+
+    private final int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(MAX_MOVES);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    @Override
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int i) { return moves[i]; }
+    public void set(int i, int move) { moves[i] = move; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public void clear() { size = 0; }
+
+    /** Mantém apenas os {@code n} primeiros lances. */
+    public void truncate(int n) { size = n; }
+
+    /** Vetor interno (válido de 0 a size()-1), para ordenação sem cópia. */
+    public int[] raw() { return moves; }
+
+    /** Índice do lance (comparando origem/destino/promoção) ou -1. */
+    public int indexOf(int move) {
+        for (int i = 0; i < size; i++) {
+            if (PackedMove.same(moves[i], move)) return i;
+        }
+        return -1;
+    }
+
+    public boolean contains(int move) {
+        return indexOf(move) >= 0;
+    }
+
+    /** Move o lance para o início preservando a ordem dos demais; false se ausente. */
+    public boolean moveToFront(int move) {
+        int i = indexOf(move);
+        if (i < 0) return false;
+        int m = moves[i];
+        System.arraycopy(moves, 0, moves, 1, i);
+        moves[0] = m;
+        return true;
+    }
+}
@@ -0,0 +1,8 @@
+// ========================= src/model/board/MoveSink.java =========================
+package model.board;
+
+/** Destino dos lances emitidos pelos geradores (lances compactados, ver {@link PackedMove}). */
+public interface MoveSink {
+
+    void add(int move);
+}
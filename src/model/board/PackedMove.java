@@ -0,0 +1,93 @@
+// ========================= src/model/board/PackedMove.java =========================
+package model.board;
+
+import model.pieces.Piece;
+
+/**
+ * Lance compactado em um {@code int}, usado pela geração de lances e pela busca
+ * (sem alocação por lance). {@link Move} continua sendo a visão decodificada.
+ * <pre>
+ *   bits  0-5   casa de origem (0..63, ver Board.square)
+ *   bits  6-11  casa de destino
+ *   bits 12-14  promoção: 0 = nenhuma, 1..4 = Q, R, B, N
+ *   bit  15     captura
+ *   bit  16     en passant
+ *   bit  17     roque
+ *   bit  18     avanço duplo de peão
+ * </pre>
+ * Origem, destino e promoção (os 15 bits de {@link #KEY_MASK}) identificam o lance
+ * numa posição; as flags são derivadas dela e podem ser descartadas ao armazenar.
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0;
+
+    public static final int PROMO_QUEEN = 1;
+    public static final int PROMO_ROOK = 2;
+    public static final int PROMO_BISHOP = 3;
+    public static final int PROMO_KNIGHT = 4;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+    public static final int DOUBLE_PUSH = 1 << 18;
+
+    public static final int KEY_MASK = 0x7FFF;
+
+    private static final char[] PROMO_CHARS = {0, 'Q', 'R', 'B', 'N'};
+    private static final int[] PROMO_TYPES = {Piece.PAWN, Piece.QUEEN, Piece.ROOK, Piece.BISHOP, Piece.KNIGHT};
+
+    private PackedMove() { }
+
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | flags;
+    }
+
+    public static int promotion(int from, int to, int promo, int flags) {
+        return from | (to << 6) | (promo << 12) | flags;
+    }
+
+    public static int from(int move) { return move & 63; }
+    public static int to(int move) { return (move >>> 6) & 63; }
+
+    /** Código da promoção (0 = nenhuma, PROMO_QUEEN..PROMO_KNIGHT). */
+    public static int promotion(int move) { return (move >>> 12) & 7; }
+
+    /** Peça da promoção ('Q','R','B','N') ou null. */
+    public static Character promotionChar(int move) {
+        int p = promotion(move);
+        return p == 0 ? null : PROMO_CHARS[p];
+    }
+
+    /** Tipo da peça promovida (Piece.QUEEN..Piece.KNIGHT) para um código de promoção; Piece.PAWN para 0. */
+    public static int promotedType(int promo) {
+        return PROMO_TYPES[promo];
+    }
+
+    /** Código de promoção para 'Q','R','B','N' (qualquer outro vale dama). */
+    public static int promotionCode(char piece) {
+        return switch (Character.toUpperCase(piece)) {
+            case 'R' -> PROMO_ROOK;
+            case 'B' -> PROMO_BISHOP;
+            case 'N' -> PROMO_KNIGHT;
+            default -> PROMO_QUEEN;
+        };
+    }
+
+    public static boolean isCapture(int move) { return (move & CAPTURE) != 0; }
+    public static boolean isEnPassant(int move) { return (move & EN_PASSANT) != 0; }
+    public static boolean isCastle(int move) { return (move & CASTLE) != 0; }
+    public static boolean isDoublePush(int move) { return (move & DOUBLE_PUSH) != 0; }
+
+    /** Mesmo lance (origem, destino e promoção), ignorando as flags. */
+    public static boolean same(int a, int b) {
+        return (a & KEY_MASK) == (b & KEY_MASK);
+    }
+
+    /** Notação de coordenadas (ex.: e2e4, e7e8q). */
+    public static String toUci(int move) {
+        String s = Position.of(from(move)).toString() + Position.of(to(move));
+        Character p = promotionChar(move);
+        return p == null ? s : s + Character.toLowerCase(p);
+    }
+}
@@ -1,10 +1,17 @@
 // ========================= src/model/board/Position.java =========================
 package model.board;
 
-import java.util.Objects;
-
 public final class Position {
 
+    // Tabela canônica das 64 casas (índice = row * 8 + column)
+    private static final Position[] SQUARES = new Position[64];
+
+    static {
+        for (int i = 0; i < 64; i++) {
+            SQUARES[i] = new Position(i >>> 3, i & 7);
+        }
+    }
+
     private final int row;    // 0..7 (0 = topo / linha 8, 7 = fundo / linha 1)
     private final int column; // 0..7 (0 = 'a', 7 = 'h')
 
@@ -13,9 +20,26 @@ public final class Position {
         this.column = column;
     }
 
+    /**
+     * Instância canônica da casa (sem alocação), ou null se estiver fora do tabuleiro.
+     * Posições obtidas por aqui podem ser comparadas por identidade (==).
+     */
+    public static Position of(int row, int column) {
+        if (row < 0 || row > 7 || column < 0 || column > 7) return null;
+        return SQUARES[(row << 3) | column];
+    }
+
+    /** Instância canônica da casa de índice 0..63 (0 = a8, 63 = h1). */
+    public static Position of(int index) {
+        return SQUARES[index];
+    }
+
     public int getRow() { return row; }
     public int getColumn() { return column; }
 
+    /** Índice 0..63 da casa (row * 8 + column), o mesmo usado pelos bitboards do Board. */
+    public int index() { return (row << 3) | column; }
+
     /** Retorna true se a posição estiver dentro do tabuleiro 8x8. */
     public boolean isValid() {
         return row >= 0 && row < 8 && column >= 0 && column < 8;
@@ -31,7 +55,7 @@ public final class Position {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, column);
+        return row * 8 + column;
     }
 
     /** Notação algébrica padrão (ex: a1, e4, h8). */
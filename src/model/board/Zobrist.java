@@ -0,0 +1,52 @@
+// ========================= src/model/board/Zobrist.java =========================
+package model.board;
+
+import java.util.SplittableRandom;
+import model.pieces.Piece;
+
+/**
+ * Chaves aleatórias de Zobrist (semente fixa, portanto reprodutíveis entre execuções).
+ *
+ * A chave de uma posição é o XOR de: uma chave por (peça, casa) ocupada, a chave
+ * de lado se as pretas jogam, a chave dos direitos de roque (máscara 0..15) e a
+ * chave da coluna do alvo de en passant, quando houver.
+ */
+public final class Zobrist {
+
+    private static final long[] PIECES = new long[12 * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT = new long[8];
+
+    /** XOR aplicado quando as pretas estão com a vez. */
+    public static final long SIDE;
+
+    static {
+        SplittableRandom rnd = new SplittableRandom(0x2545F4914F6CDD1DL);
+        for (int i = 0; i < PIECES.length; i++) PIECES[i] = rnd.nextLong();
+        for (int i = 0; i < CASTLING.length; i++) CASTLING[i] = rnd.nextLong();
+        for (int i = 0; i < EN_PASSANT.length; i++) EN_PASSANT[i] = rnd.nextLong();
+        CASTLING[0] = 0L; // sem direitos de roque não altera a chave
+        SIDE = rnd.nextLong();
+    }
+
+    private Zobrist() { }
+
+    /** Chave da peça (Piece.PAWN..Piece.KING, cor) na casa 0..63. */
+    public static long piece(int type, boolean white, int square) {
+        return PIECES[((white ? type : type + 6) << 6) | square];
+    }
+
+    public static long piece(Piece p, int square) {
+        return piece(p.getType(), p.isWhite(), square);
+    }
+
+    /** Chave de uma máscara de direitos de roque (0..15). */
+    public static long castling(int rights) {
+        return CASTLING[rights & 15];
+    }
+
+    /** Chave da coluna (0..7) do alvo de en passant. */
+    public static long enPassant(int column) {
+        return EN_PASSANT[column];
+    }
+}
@@ -1,47 +1,25 @@
 // ========================= src/model/pieces/Knight.java =========================
 package model.pieces;
 
-import java.util.*;
 import model.board.*;
 
 public class Knight extends Piece {
 
-    public Knight(Board b, boolean w) { super(b, w); }
+    Knight(boolean w) { super(w); }
 
     @Override
     public String getSymbol() { return "N"; }
 
     @Override
-    public Piece copyFor(Board newBoard) {
-        Knight clone = new Knight(newBoard, isWhite);
-        clone.moved = this.moved;
-        if (this.position != null) {
-            clone.setPosition(new Position(this.position.getRow(), this.position.getColumn()));
-        }
-        return clone;
-    }
+    public int getType() { return KNIGHT; }
 
     @Override
-    public List<Position> getPossibleMoves() {
-        List<Position> moves = new ArrayList<>();
-        if (position == null || board == null) return moves;
-
-        int[][] jumps = {
-            {-2,-1},{-2,1},{-1,-2},{-1,2},
-            { 1,-2},{ 1,2},{ 2,-1},{ 2,1}
-        };
-
-        for (int[] d : jumps) {
-            int r = position.getRow() + d[0];
-            int c = position.getColumn() + d[1];
-            if (r < 0 || r > 7 || c < 0 || c > 7) continue;
+    public void generateMoves(Board board, int square, long targets, MoveSink sink) {
+        addTargets(board, square, Attacks.knight(square) & targets, sink);
+    }
 
-            Position to = new Position(r, c);
-            Piece occ = board.get(to);
-            if (occ == null || occ.isWhite() != this.isWhite) {
-                moves.add(to);
-            }
-        }
-        return moves;
+    @Override
+    public long attacks(Board board, int square) {
+        return Attacks.knight(square);
     }
 }
@@ -1,13 +1,12 @@
 // ========================= src/model/pieces/Pawn.java =========================
 package model.pieces;
 
-import java.util.*;
 import model.board.*;
 
 public class Pawn extends Piece {
 
-    public Pawn(Board b, boolean w) {
-        super(b, w);
+    Pawn(boolean w) {
+        super(w);
     }
 
     @Override
@@ -16,64 +15,59 @@ public class Pawn extends Piece {
     }
 
     @Override
-    public Piece copyFor(Board newBoard) {
-        Pawn clone = new Pawn(newBoard, isWhite);
-        clone.moved = this.moved;
-        if (this.position != null) {
-            clone.setPosition(new Position(position.getRow(), position.getColumn()));
-        }
-        return clone;
+    public int getType() {
+        return PAWN;
     }
 
     @Override
-    public List<Position> getPossibleMoves() {
-        List<Position> moves = new ArrayList<>();
+    public void generateMoves(Board board, int square, long targets, MoveSink sink) {
         int dir = isWhite ? -1 : 1;
 
+        int r = square >>> 3;
+        int c = square & 7;
+
         // Um passo à frente
-        Position f1 = new Position(position.getRow() + dir, position.getColumn());
-        if (f1.isValid() && board.get(f1) == null) {
-            moves.add(f1);
+        if (empty(board, r + dir, c)) {
+            if (inTargets(targets, r + dir, c)) addPawnMove(sink, square, Board.square(r + dir, c), 0);
 
-            // Dois passos à frente (se ainda não moveu)
-            Position f2 = new Position(position.getRow() + 2 * dir, position.getColumn());
-            if (!moved && f2.isValid() && board.get(f2) == null) {
-                moves.add(f2);
+            // Dois passos à frente (a partir da fileira inicial)
+            int startRow = isWhite ? 6 : 1;
+            if (r == startRow && empty(board, r + 2 * dir, c) && inTargets(targets, r + 2 * dir, c)) {
+                sink.add(PackedMove.of(square, Board.square(r + 2 * dir, c), PackedMove.DOUBLE_PUSH));
             }
         }
 
         // Capturas diagonais
-        Position left = new Position(position.getRow() + dir, position.getColumn() - 1);
-        Position right = new Position(position.getRow() + dir, position.getColumn() + 1);
-
-        if (left.isValid()) {
-            Piece target = board.get(left);
-            if (target != null && target.isWhite() != isWhite) {
-                moves.add(left);
-            }
+        if (enemy(board, r + dir, c - 1) && inTargets(targets, r + dir, c - 1)) {
+            addPawnMove(sink, square, Board.square(r + dir, c - 1), PackedMove.CAPTURE);
         }
-        if (right.isValid()) {
-            Piece target = board.get(right);
-            if (target != null && target.isWhite() != isWhite) {
-                moves.add(right);
-            }
+        if (enemy(board, r + dir, c + 1) && inTargets(targets, r + dir, c + 1)) {
+            addPawnMove(sink, square, Board.square(r + dir, c + 1), PackedMove.CAPTURE);
         }
 
         // Obs: En passant tratado no Game
-        return moves;
     }
 
-    @Override
-    public List<Position> getAttacks() {
-        List<Position> attacks = new ArrayList<>();
-        int dir = isWhite ? -1 : 1;
-
-        Position left = new Position(position.getRow() + dir, position.getColumn() - 1);
-        Position right = new Position(position.getRow() + dir, position.getColumn() + 1);
+    private static boolean inTargets(long targets, int r, int c) {
+        return (targets & Board.bit(Board.square(r, c))) != 0;
+    }
 
-        if (left.isValid()) attacks.add(left);
-        if (right.isValid()) attacks.add(right);
+    /** Emite o lance; na última fileira emite as quatro promoções (dama primeiro). */
+    private static void addPawnMove(MoveSink sink, int from, int to, int flags) {
+        int row = to >>> 3;
+        if (row == 0 || row == 7) {
+            sink.add(PackedMove.promotion(from, to, PackedMove.PROMO_QUEEN, flags));
+            sink.add(PackedMove.promotion(from, to, PackedMove.PROMO_ROOK, flags));
+            sink.add(PackedMove.promotion(from, to, PackedMove.PROMO_BISHOP, flags));
+            sink.add(PackedMove.promotion(from, to, PackedMove.PROMO_KNIGHT, flags));
+        } else {
+            sink.add(PackedMove.of(from, to, flags));
+        }
+    }
 
-        return attacks;
+    /** Diagonais à frente (capturas), mesmo vazias. */
+    @Override
+    public long attacks(Board board, int square) {
+        return Attacks.pawn(square, isWhite);
     }
 }
@@ -3,50 +3,118 @@ package model.pieces;
 
 
 import model.board.Board;
+import model.board.MoveList;
+import model.board.MoveSink;
+import model.board.PackedMove;
 import model.board.Position;
 import java.util.*;
 
 
+// Peças são "flyweights" imutáveis: há só 12 instâncias (tipo x cor), compartilhadas
+// por todos os tabuleiros. Casa e tabuleiro vêm como parâmetro nas regras de movimento;
+// direitos de roque e en passant são estado do Game.
 public abstract class Piece {
-protected Position position;
+// Tipos de peça (índices usados pelos bitboards do Board)
+public static final int PAWN = 0, KNIGHT = 1, BISHOP = 2, ROOK = 3, QUEEN = 4, KING = 5;
+
+
+// índice = tipo + (branca ? 0 : 6), como nos bitboards
+private static final Piece[] FLYWEIGHTS = {
+new Pawn(true), new Knight(true), new Bishop(true), new Rook(true), new Queen(true), new King(true),
+new Pawn(false), new Knight(false), new Bishop(false), new Rook(false), new Queen(false), new King(false)
+};
+
+
 protected final boolean isWhite;
-protected final Board board;
-protected boolean moved = false;
 
 
-public Piece(Board board, boolean isWhite) {
-this.board = board; this.isWhite = isWhite;
+protected Piece(boolean isWhite) {
+this.isWhite = isWhite;
+}
+
+
+// Instância compartilhada do tipo (PAWN..KING) e cor
+public static Piece of(int type, boolean white){ return FLYWEIGHTS[white ? type : type + 6]; }
+
+
+// Peça a partir da letra FEN (maiúscula = branca)
+public static Piece fromSymbol(char symbol){
+int type = switch (Character.toUpperCase(symbol)) {
+case 'P' -> PAWN;
+case 'N' -> KNIGHT;
+case 'B' -> BISHOP;
+case 'R' -> ROOK;
+case 'Q' -> QUEEN;
+case 'K' -> KING;
+default -> throw new IllegalArgumentException("Peça inválida: " + symbol);
+};
+return of(type, Character.isUpperCase(symbol));
 }
 
 
 public boolean isWhite(){ return isWhite; }
-public Position getPosition(){ return position; }
-public void setPosition(Position position){ this.position = position; }
-public boolean hasMoved(){ return moved; }
-public void setMoved(boolean moved){ this.moved = moved; }
 
 
-// Pseudo-movimentos (não filtram xeque ao próprio rei)
-public abstract List<Position> getPossibleMoves();
-// Casas atacadas (para peão difere dos possíveis)
-public List<Position> getAttacks(){ return getPossibleMoves(); }
+// Pseudo-movimentos compactados (PackedMove) da peça em 'square', emitidos no sink, sem alocação.
+// Não filtram xeque ao próprio rei; roque e en passant ficam no Game.
+public void generateMoves(Board board, int square, MoveSink sink){
+generateMoves(board, square, -1L, sink);
+}
+// Idem, só com destino em 'targets' (ex.: casas inimigas para gerar apenas capturas)
+public abstract void generateMoves(Board board, int square, long targets, MoveSink sink);
+
+
+// Casas atacadas a partir de 'square' (para peão difere dos possíveis)
+public abstract long attacks(Board board, int square);
+
+
+// Pseudo-movimentos (não filtram xeque ao próprio rei); visão em Position de generateMoves
+public List<Position> getPossibleMoves(Board board, Position from){
+List<Position> out = new ArrayList<>();
+MoveList ml = new MoveList();
+generateMoves(board, from.index(), ml);
+for(int i=0;i<ml.size();i++){
+int m = ml.get(i);
+int promo = PackedMove.promotion(m);
+if(promo==0 || promo==PackedMove.PROMO_QUEEN) out.add(Position.of(PackedMove.to(m)));
+}
+return out;
+}
+// Casas atacadas, em Position
+public List<Position> getAttacks(Board board, Position from){
+List<Position> out = new ArrayList<>();
+long m = attacks(board, from.index());
+while(m != 0){ out.add(Position.of(Long.numberOfTrailingZeros(m))); m &= m - 1; }
+return out;
+}
 
 
 public abstract String getSymbol(); // K,Q,R,B,N,P
+public abstract int getType(); // PAWN..KING
 
 
-// Fábrica de cópia para outro board
-public abstract Piece copyFor(Board newBoard);
+@Override
+public String toString(){ return isWhite ? getSymbol() : getSymbol().toLowerCase(); }
 
 
-protected boolean empty(int r, int c){ return new Position(r,c).isValid() && board.get(new Position(r,c))==null; }
-protected boolean enemy(int r, int c){
-Position p = new Position(r,c);
-if(!p.isValid()) return false; Piece q = board.get(p);
-return q!=null && q.isWhite()!=this.isWhite;
+protected boolean empty(Board board, int r, int c){
+if(r<0 || r>7 || c<0 || c>7) return false;
+return (board.occupancy() & Board.bit(Board.square(r,c)))==0;
+}
+protected boolean enemy(Board board, int r, int c){
+if(r<0 || r>7 || c<0 || c>7) return false;
+return (board.occupancy(!isWhite) & Board.bit(Board.square(r,c)))!=0;
+}
+
+
+// Emite um lance para cada casa de 'targets', descontadas as casas com peças próprias
+protected void addTargets(Board board, int from, long targets, MoveSink sink){
+targets &= ~board.occupancy(isWhite);
+long enemies = board.occupancy(!isWhite);
+while(targets != 0){
+int to = Long.numberOfTrailingZeros(targets);
+targets &= targets - 1;
+sink.add(PackedMove.of(from, to, (enemies & Board.bit(to))!=0 ? PackedMove.CAPTURE : 0));
+}
 }
-protected void addIfFreeOrEnemy(List<Position> list, int r, int c){
-Position p = new Position(r,c); if(!p.isValid()) return;
-var q = board.get(p); if(q==null || q.isWhite()!=this.isWhite) list.add(p);
 }
-}
\ No newline at end of file
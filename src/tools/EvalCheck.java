@@ -0,0 +1,148 @@
+package tools;
+
+import controller.Game;
+import engine.Evaluator;
+import engine.IncrementalEvaluator;
+import java.util.List;
+import model.board.MoveList;
+import model.board.PackedMove;
+
+/**
+ * Confere a avaliação incremental ({@link IncrementalEvaluator}) contra a avaliação
+ * completa de {@link Evaluator}: percorre a árvore de lances de cada posição da
+ * suíte com makeMove/unmakeMove e compara as duas depois de cada lance e de cada
+ * volta, dos dois lados. A suíte cobre roques, en passant, promoções (inclusive
+ * com captura e sub-promoções) e capturas; a conferência só passa se cada um
+ * desses tipos de lance tiver sido jogado.
+ *
+ * Uso:
+ * <pre>
+ *   java tools.EvalCheck                     # roda a suíte embutida
+ *   java tools.EvalCheck --fen "..." --depth 4
+ * </pre>
+ */
+public final class EvalCheck {
+
+    /** Posição da suíte: FEN e profundidade percorrida. */
+    private record Case(String name, String fen, int depth) { }
+
+    private static final List<Case> SUITE = List.of(
+        new Case("startpos", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", 4),
+        new Case("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 3),
+        new Case("position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 3),
+        new Case("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 3),
+        new Case("ep capture checks", "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1", 5),
+        new Case("castling rights", "r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1", 3),
+        new Case("promote out of check", "2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1", 5),
+        new Case("underpromote to check", "8/P1k5/K7/8/8/8/8/8 w - - 0 1", 5)
+    );
+
+    /** Lances jogados, por tipo, e o primeiro erro encontrado. */
+    private static final class Tally {
+        long nodes, captures, enPassants, castles, promotions;
+        String error;
+    }
+
+    private EvalCheck() { }
+
+    /**
+     * Percorre {@code game} até {@code depth} com a avaliação incremental ligada ao
+     * tabuleiro e devolve a contagem; {@code error} fica nulo se tudo confere.
+     */
+    private static Tally check(Game game, int depth) {
+        IncrementalEvaluator eval = new IncrementalEvaluator();
+        eval.attach(game.board());
+        MoveList[] buffers = new MoveList[depth + 1];
+        for (int i = 1; i <= depth; i++) buffers[i] = new MoveList();
+        Tally t = new Tally();
+        compare(game, eval, "root", t);
+        walk(game, eval, depth, buffers, "", t);
+        return t;
+    }
+
+    private static void walk(Game game, IncrementalEvaluator eval, int depth, MoveList[] buffers,
+                             String line, Tally t) {
+        MoveList moves = buffers[depth];
+        game.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size() && t.error == null; i++) {
+            int m = moves.get(i);
+            String here = line + PackedMove.toUci(m) + " ";
+            t.nodes++;
+            if (PackedMove.isCapture(m)) t.captures++;
+            if (PackedMove.isEnPassant(m)) t.enPassants++;
+            if (PackedMove.isCastle(m)) t.castles++;
+            if (PackedMove.promotion(m) != 0) t.promotions++;
+
+            game.makeMove(m);
+            compare(game, eval, "after " + here, t);
+            if (depth > 1 && t.error == null) walk(game, eval, depth - 1, buffers, here, t);
+            game.unmakeMove();
+            compare(game, eval, "after undoing " + here, t);
+        }
+    }
+
+    private static void compare(Game game, IncrementalEvaluator eval, String where, Tally t) {
+        if (t.error != null) return;
+        for (boolean white : new boolean[] {true, false}) {
+            int incremental = eval.evaluate(white);
+            int full = Evaluator.evaluate(game.board(), white);
+            if (incremental != full) {
+                t.error = where + "(" + (white ? "white" : "black") + "): incremental " + incremental
+                        + ", full " + full;
+                return;
+            }
+        }
+        if (!eval.verify()) t.error = where + ": incremental sums differ from a recomputation";
+    }
+
+    public static void main(String[] args) {
+        String fen = null;
+        int depth = 3;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fen" -> fen = args[++i];
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        if (fen == null) System.exit(runSuite() ? 0 : 1);
+        Game game = new Game();
+        game.loadFen(fen);
+        Tally t = check(game, depth);
+        report(t.error == null ? "OK" : "FAIL", t);
+        System.exit(t.error == null ? 0 : 1);
+    }
+
+    private static boolean runSuite() {
+        boolean allOk = true;
+        Tally total = new Tally();
+        for (Case c : SUITE) {
+            Game game = new Game();
+            game.loadFen(c.fen);
+            Tally t = check(game, c.depth);
+            allOk &= t.error == null;
+            report(String.format("%-4s %-24s d=%d", t.error == null ? "OK" : "FAIL", c.name, c.depth), t);
+            total.nodes += t.nodes;
+            total.captures += t.captures;
+            total.enPassants += t.enPassants;
+            total.castles += t.castles;
+            total.promotions += t.promotions;
+        }
+        boolean covered = total.captures > 0 && total.enPassants > 0 && total.castles > 0 && total.promotions > 0;
+        if (!covered) System.out.println("     the suite did not play every kind of move");
+        allOk &= covered;
+        report(allOk ? "suite passed" : "suite FAILED", total);
+        return allOk;
+    }
+
+    private static void report(String label, Tally t) {
+        System.out.printf("%s  moves=%d  captures=%d  en passant=%d  castles=%d  promotions=%d%n",
+                label, t.nodes, t.captures, t.enPassants, t.castles, t.promotions);
+        if (t.error != null) System.out.println("     " + t.error);
+    }
+}
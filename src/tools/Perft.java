@@ -0,0 +1,183 @@
+package tools;
+
+import controller.Game;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import model.board.MoveList;
+import model.board.PackedMove;
+
+/**
+ * Contador de nós (perft) para validar e medir a geração de lances de {@link Game}.
+ *
+ * Uso:
+ * <pre>
+ *   java tools.Perft                         # roda a suíte embutida
+ *   java tools.Perft --depth 5               # posição inicial até a profundidade 5
+ *   java tools.Perft --fen "..." --depth 4 --divide
+ *   java tools.Perft --threads 8 ...         # divide os lances da raiz num ForkJoinPool
+ *   java tools.Perft --attack-maps ...       # liga os mapas de ataque incrementais do Board
+ * </pre>
+ */
+public final class Perft {
+
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /** Posição da suíte: FEN, profundidade e total de folhas esperado. */
+    private record Case(String name, String fen, int depth, long nodes) { }
+
+    private static final List<Case> SUITE = List.of(
+        new Case("startpos", START_FEN, 5, 4_865_609L),
+        new Case("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 4, 4_085_603L),
+        new Case("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 5, 674_624L),
+        new Case("position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 4, 422_333L),
+        new Case("position 4 mirrored", "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1", 4, 422_333L),
+        new Case("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 4, 2_103_487L),
+        new Case("position 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", 4, 3_894_594L),
+        new Case("illegal ep (white)", "3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1", 6, 1_134_888L),
+        new Case("illegal ep (black)", "8/8/4k3/8/2p5/8/B2P2K1/8 w - - 0 1", 6, 1_015_133L),
+        new Case("ep capture checks", "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1", 6, 1_440_467L),
+        new Case("short castle checks", "5k2/8/8/8/8/8/8/4K2R w K - 0 1", 6, 661_072L),
+        new Case("long castle checks", "3k4/8/8/8/8/8/8/R3K3 w Q - 0 1", 6, 803_711L),
+        new Case("castling rights", "r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1", 4, 1_274_206L),
+        new Case("castling prevented", "r3k2r/8/3Q4/8/8/5q2/8/R3K2R b KQkq - 0 1", 4, 1_720_476L),
+        new Case("promote out of check", "2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1", 6, 3_821_001L),
+        new Case("discovered check", "8/8/1P2K3/8/2n5/1q6/8/5k2 b - - 0 1", 5, 1_004_658L),
+        new Case("promote to check", "4k3/1P6/8/8/8/8/K7/8 w - - 0 1", 6, 217_342L),
+        new Case("underpromote to check", "8/P1k5/K7/8/8/8/8/8 w - - 0 1", 6, 92_683L),
+        new Case("self stalemate", "K1k5/8/P7/8/8/8/8/8 w - - 0 1", 6, 2_217L),
+        new Case("stalemate and mate (white)", "8/k1P5/8/1K6/8/8/8/8 w - - 0 1", 7, 567_584L),
+        new Case("stalemate and mate (black)", "8/8/2k5/5q2/5n2/8/5K2/8 b - - 0 1", 4, 23_527L)
+    );
+
+    private Perft() { }
+
+    /** Conta as folhas a partir de {@code game} até {@code depth} (o jogo é restaurado ao final). */
+    public static long perft(Game game, int depth) {
+        if (depth == 0) return 1;
+        MoveList[] buffers = new MoveList[depth + 1];
+        for (int i = 1; i <= depth; i++) buffers[i] = new MoveList();
+        return perft(game, depth, buffers);
+    }
+
+    // Uma lista de lances por profundidade, reaproveitada em toda a árvore
+    private static long perft(Game game, int depth, MoveList[] buffers) {
+        MoveList moves = buffers[depth];
+        game.generateLegalMoves(moves);
+        if (depth == 1) return moves.size();
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            nodes += perft(game, depth - 1, buffers);
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /** Subárvore de um lance da raiz, calculada numa cópia própria do jogo. */
+    private static final class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Game game;
+        private final int move;
+        private final int depth;
+
+        RootTask(Game root, int move, int depth) {
+            this.game = root.snapshotPosition();
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            game.makeMove(move);
+            return perft(game, depth - 1);
+        }
+    }
+
+    /**
+     * Perft com divisão pela raiz: cada lance vira uma tarefa no pool.
+     * Se {@code divide}, imprime a contagem de cada lance da raiz.
+     */
+    public static long run(Game game, int depth, ForkJoinPool pool, boolean divide) {
+        if (depth == 0) return 1;
+        MoveList roots = new MoveList();
+        game.generateLegalMoves(roots);
+        List<RootTask> tasks = new ArrayList<>(roots.size());
+        for (int i = 0; i < roots.size(); i++) tasks.add(new RootTask(game, roots.get(i), depth));
+        for (RootTask t : tasks) pool.execute(t);
+
+        long total = 0;
+        for (RootTask t : tasks) {
+            long n = t.join();
+            total += n;
+            if (divide) System.out.println(PackedMove.toUci(t.move) + ": " + n);
+        }
+        return total;
+    }
+
+    public static void main(String[] args) {
+        String fen = null;
+        int depth = -1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean divide = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fen" -> fen = args[++i];
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--divide" -> divide = true;
+                case "--attack-maps" -> System.setProperty("chess.attackMaps", "true");
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            if (fen == null && depth < 0) {
+                System.exit(runSuite(pool) ? 0 : 1);
+            }
+            Game game = new Game();
+            if (fen != null) game.loadFen(fen);
+            int d = depth < 0 ? 4 : depth;
+
+            long t0 = System.nanoTime();
+            long nodes = run(game, d, pool, divide);
+            report("perft(" + d + ")", nodes, System.nanoTime() - t0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static boolean runSuite(ForkJoinPool pool) {
+        boolean allOk = true;
+        long totalNodes = 0, totalNanos = 0;
+        for (Case c : SUITE) {
+            Game game = new Game();
+            game.loadFen(c.fen);
+            long t0 = System.nanoTime();
+            long nodes = run(game, c.depth, pool, false);
+            long dt = System.nanoTime() - t0;
+            boolean ok = nodes == c.nodes;
+            allOk &= ok;
+            totalNodes += nodes;
+            totalNanos += dt;
+            report(String.format("%-4s %-28s d=%d", ok ? "OK" : "FAIL", c.name, c.depth), nodes, dt);
+            if (!ok) System.out.println("     expected " + c.nodes + " for " + c.fen);
+        }
+        report(allOk ? "suite passed" : "suite FAILED", totalNodes, totalNanos);
+        return allOk;
+    }
+
+    private static void report(String label, long nodes, long nanos) {
+        double secs = nanos / 1e9;
+        long nps = secs > 0 ? (long) (nodes / secs) : 0;
+        System.out.printf("%s  nodes=%d  time=%.3fs  nps=%d%n", label, nodes, secs, nps);
+    }
+}
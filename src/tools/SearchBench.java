@@ -0,0 +1,88 @@
+package tools;
+
+import controller.Game;
+import engine.EvalCache;
+import engine.MoveOrdering;
+import engine.ParallelSearch;
+import engine.Search;
+import engine.TranspositionTable;
+
+/**
+ * Mede tempo até a profundidade e nós/s da busca para várias quantidades de threads.
+ *
+ * Uso:
+ * <pre>
+ *   java tools.SearchBench --depth 7 --threads 1,2,4,8 [--fen "..."] [--hash 256]
+ *                          [--no-pvs] [--no-null] [--no-lmr] [--no-aspiration] [--nnue]
+ * </pre>
+ * Cada rodada começa com a tabela de transposição e o cache de avaliação limpos.
+ * O tempo economizado pelo cache de avaliação é uma estimativa, a partir de uma
+ * amostra cronometrada das avaliações que não o encontraram. As opções --no-* desligam
+ * uma técnica seletiva da busca, para medir seu efeito em nós e tempo; --nnue avalia
+ * com a rede neural em vez da avaliação clássica (pesos indicados por -Dchess.nnue).
+ */
+public final class SearchBench {
+
+    private static final String[] DEFAULT_FENS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+    };
+
+    private SearchBench() { }
+
+    public static void main(String[] args) {
+        int depth = 6;
+        int hashMb = 64;
+        String threadList = "1," + Runtime.getRuntime().availableProcessors();
+        String[] fens = DEFAULT_FENS;
+        boolean pvs = true, nullMove = true, lmr = true, aspiration = true, nnue = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--threads" -> threadList = args[++i];
+                case "--fen" -> fens = new String[] { args[++i] };
+                case "--hash" -> hashMb = Integer.parseInt(args[++i]);
+                case "--no-pvs" -> pvs = false;
+                case "--no-null" -> nullMove = false;
+                case "--no-lmr" -> lmr = false;
+                case "--no-aspiration" -> aspiration = false;
+                case "--nnue" -> nnue = true;
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        Search.Options options = new Search.Options(pvs, nullMove, lmr, aspiration, nnue);
+        TranspositionTable tt = new TranspositionTable(hashMb);
+        EvalCache evalCache = new EvalCache();
+        long baseMillis = -1;
+        for (String t : threadList.split(",")) {
+            int threads = Integer.parseInt(t.trim());
+            long nodes = 0, millis = 0;
+            Search.Stats stats = Search.Stats.EMPTY;
+            for (String fen : fens) {
+                Game game = new Game();
+                game.loadFen(fen);
+                tt.clear();
+                tt.newSearch();
+                evalCache.clear();
+                Search.Result r = ParallelSearch.search(game, tt, evalCache, new MoveOrdering(), options,
+                        threads, depth, Long.MAX_VALUE / 2_000_000L);
+                nodes += r.nodes();
+                millis += r.millis();
+                stats = stats.plus(r.stats());
+            }
+            if (baseMillis < 0) baseMillis = millis;
+            System.out.printf("threads=%-3d depth=%d  time=%dms  nodes=%d  nps=%d  speedup=%.2f"
+                            + "  first-move cutoffs=%.1f%%  pawn hash hits=%.1f%%"
+                            + "  eval cache hits=%.1f%% (~%dms saved)%n",
+                    threads, depth, millis, nodes, millis > 0 ? nodes * 1000 / millis : 0,
+                    millis > 0 ? (double) baseMillis / millis : 0.0, 100 * stats.firstMoveCutoffRate(),
+                    100 * stats.pawnHitRate(), 100 * stats.evalHitRate(), stats.evalNanosSaved() / 1_000_000);
+        }
+    }
+}
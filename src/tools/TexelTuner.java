@@ -0,0 +1,459 @@
+package tools;
+
+import controller.Game;
+import engine.EvalParams;
+import engine.Evaluator;
+import engine.Search;
+import engine.TranspositionTable;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import model.board.Board;
+import model.board.Position;
+import model.pieces.Piece;
+
+/**
+ * Ajuste de Texel dos parâmetros da avaliação clássica ({@link EvalParams}).
+ *
+ * Uso:
+ * <pre>
+ *   java tools.TexelTuner convert posicoes.txt posicoes.bin [--threads 8]
+ *   java tools.TexelTuner tune posicoes.bin [--epochs 10] [--batch 16384] [--lr 1.0]
+ *                              [--k 1.1] [--threads 8] [--out resources/eval.params]
+ * </pre>
+ * {@code convert} lê em fluxo um arquivo texto com uma posição por linha (FEN
+ * seguido do resultado da partida: 1-0, 0-1, 1/2-1/2 ou [1.0], [0.5], [0.0]),
+ * leva cada posição até a folha quieta da busca quiescente ({@link Search#resolveQuiet})
+ * num ForkJoinPool e grava um registro binário de 32 bytes por posição.
+ *
+ * {@code tune} mapeia esse arquivo em memória (nunca o carrega no heap), escolhe
+ * a escala K da sigmoide que melhor explica os resultados com os parâmetros
+ * atuais e minimiza o erro logístico médio por gradiente descendente (Adam, em
+ * mini-lotes), com os coeficientes de cada posição dados por {@link Evaluator#trace}.
+ * O resultado é gravado no arquivo de parâmetros que a avaliação lê ao iniciar.
+ */
+public final class TexelTuner {
+
+    // Registro: ocupação (8 bytes), peças em ordem de casa (4 bits cada, até 32),
+    // resultado do ponto de vista das brancas (0, 1 ou 2 meios pontos), reserva
+    static final int RECORD = 32;
+    private static final int BLOCK_LINES = 1 << 14;
+    private static final int LEAF_RECORDS = 1024;
+    private static final int K_SAMPLE = 1 << 20;
+    private static final long WINDOW = 1L << 30;
+
+    private TexelTuner() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) usage();
+        int threads = Runtime.getRuntime().availableProcessors();
+        int epochs = 10, batch = 16_384;
+        double lr = 1.0, k = Double.NaN;
+        String out = "resources/" + EvalParams.RESOURCE;
+        List<String> files = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--epochs" -> epochs = Integer.parseInt(args[++i]);
+                case "--batch" -> batch = Integer.parseInt(args[++i]);
+                case "--lr" -> lr = Double.parseDouble(args[++i]);
+                case "--k" -> k = Double.parseDouble(args[++i]);
+                case "--out" -> out = args[++i];
+                default -> files.add(args[i]);
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            switch (args[0]) {
+                case "convert" -> {
+                    if (files.size() != 2) usage();
+                    convert(Path.of(files.get(0)), Path.of(files.get(1)), pool);
+                }
+                case "tune" -> {
+                    if (files.size() != 1) usage();
+                    tune(new Dataset(Path.of(files.get(0))), pool, epochs, batch, lr, k, Path.of(out));
+                }
+                default -> usage();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: TexelTuner convert <positions.txt> <positions.bin> [--threads N]");
+        System.err.println("       TexelTuner tune <positions.bin> [--epochs N] [--batch N] [--lr X] [--k X]"
+                + " [--threads N] [--out file]");
+        System.exit(2);
+    }
+
+    // ===== Conversão =====
+
+    /** Um jogo e uma busca por thread, reaproveitados entre posições. */
+    private static final class Resolver {
+        final Game game = new Game();
+        final Search search = new Search(game, new TranspositionTable(1));
+    }
+
+    private static final ThreadLocal<Resolver> RESOLVERS = ThreadLocal.withInitial(Resolver::new);
+
+    private static final class ConvertTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] lines;
+        private final byte[] out;
+        private final boolean[] valid;
+        private final int from, to;
+
+        ConvertTask(String[] lines, byte[] out, boolean[] valid, int from, int to) {
+            this.lines = lines;
+            this.out = out;
+            this.valid = valid;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 256) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ConvertTask(lines, out, valid, from, mid), new ConvertTask(lines, out, valid, mid, to));
+                return;
+            }
+            Resolver r = RESOLVERS.get();
+            for (int i = from; i < to; i++) valid[i] = convertLine(r, lines[i], out, i * RECORD);
+        }
+    }
+
+    private static void convert(Path in, Path out, ForkJoinPool pool) throws IOException {
+        long start = System.nanoTime(), read = 0, written = 0;
+        String[] lines = new String[BLOCK_LINES];
+        byte[] records = new byte[BLOCK_LINES * RECORD];
+        boolean[] valid = new boolean[BLOCK_LINES];
+        try (BufferedReader reader = Files.newBufferedReader(in, StandardCharsets.UTF_8);
+             OutputStream os = new BufferedOutputStream(new FileOutputStream(out.toFile()), 1 << 16)) {
+            while (true) {
+                int n = 0;
+                String line;
+                while (n < BLOCK_LINES && (line = reader.readLine()) != null) lines[n++] = line;
+                if (n == 0) break;
+                read += n;
+                pool.invoke(new ConvertTask(lines, records, valid, 0, n));
+                for (int i = 0; i < n; i++) {
+                    if (!valid[i]) continue;
+                    os.write(records, i * RECORD, RECORD);
+                    written++;
+                }
+                System.out.printf("\r%,d lines, %,d positions", read, written);
+            }
+        }
+        System.out.printf("%n%,d positions written to %s (%,d skipped) in %.1fs%n", written, out, read - written,
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    // Lê FEN + resultado, leva à folha quieta e codifica; false se a linha não serve
+    private static boolean convertLine(Resolver r, String line, byte[] out, int offset) {
+        int result = parseResult(line);
+        if (result < 0) return false;
+        try {
+            r.game.loadFen(line);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        Board board = r.game.board();
+        if (board.kingSquare(true) < 0 || board.kingSquare(false) < 0) return false;
+        if (!r.search.resolveQuiet()) return false;
+        return encode(r.game.board(), result, out, offset);
+    }
+
+    // Resultado em meios pontos das brancas, ou -1
+    static int parseResult(String line) {
+        if (line.contains("1/2-1/2") || line.contains("[0.5]")) return 1;
+        if (line.contains("1-0") || line.contains("[1.0]")) return 2;
+        if (line.contains("0-1") || line.contains("[0.0]")) return 0;
+        return -1;
+    }
+
+    static boolean encode(Board board, int result, byte[] out, int offset) {
+        long occ = board.occupancy();
+        if (Long.bitCount(occ) > 32) return false;
+        Arrays.fill(out, offset, offset + RECORD, (byte) 0);
+        ByteBuffer.wrap(out, offset, 8).putLong(occ);
+        int n = 0;
+        for (long bb = occ; bb != 0; bb &= bb - 1, n++) {
+            Piece p = board.get(Long.numberOfTrailingZeros(bb));
+            int code = p.getType() + (p.isWhite() ? 0 : 6);
+            out[offset + 8 + (n >> 1)] |= (byte) ((n & 1) == 0 ? code : code << 4);
+        }
+        out[offset + 24] = (byte) result;
+        return true;
+    }
+
+    // ===== Conjunto de dados mapeado =====
+
+    /** Registros de um arquivo gerado por convert, mapeados em janelas de 1 GiB. */
+    static final class Dataset {
+        final long size;
+        private final MappedByteBuffer[] windows;
+
+        Dataset(Path file) throws IOException {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                long bytes = ch.size();
+                if (bytes % RECORD != 0) throw new IOException(file + " is not a converted dataset");
+                size = bytes / RECORD;
+                windows = new MappedByteBuffer[(int) ((bytes + WINDOW - 1) / WINDOW)];
+                for (int w = 0; w < windows.length; w++) {
+                    long pos = w * WINDOW;
+                    windows[w] = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW, bytes - pos));
+                }
+            }
+        }
+
+        /** Recreates record {@code index} on {@code board}; returns the result (0, 1 or 2 half points for White). */
+        int decode(long index, Board board) {
+            long pos = index * RECORD;
+            ByteBuffer buf = windows[(int) (pos / WINDOW)];
+            int at = (int) (pos % WINDOW);
+            board.clear();
+            long occ = buf.getLong(at);
+            int n = 0;
+            for (long bb = occ; bb != 0; bb &= bb - 1, n++) {
+                int b = buf.get(at + 8 + (n >> 1));
+                int code = ((n & 1) == 0 ? b : b >> 4) & 0xF;
+                board.set(Position.of(Long.numberOfTrailingZeros(bb)), Piece.of(code % 6, code < 6));
+            }
+            return buf.get(at + 24);
+        }
+    }
+
+    // ===== Ajuste =====
+
+    /** Parâmetros contínuos (mg e eg de cada um), otimizados por Adam. */
+    private static final class Model {
+        final double[] value = new double[2 * EvalParams.COUNT];
+        final double[] m = new double[value.length];
+        final double[] v = new double[value.length];
+        int steps;
+
+        Model(EvalParams p) {
+            for (int i = 0; i < EvalParams.COUNT; i++) {
+                value[2 * i] = p.mg(i);
+                value[2 * i + 1] = p.eg(i);
+            }
+        }
+
+        // Avaliação (brancas) a partir dos coeficientes
+        double evaluate(int[] coef, int phase) {
+            double mg = 0, eg = 0;
+            for (int i = 0; i < coef.length; i++) {
+                if (coef[i] == 0) continue;
+                mg += coef[i] * value[2 * i];
+                eg += coef[i] * value[2 * i + 1];
+            }
+            int p = Math.min(phase, Evaluator.MAX_PHASE);
+            return (mg * p + eg * (Evaluator.MAX_PHASE - p)) / Evaluator.MAX_PHASE;
+        }
+
+        void step(double[] grad, double lr) {
+            final double b1 = 0.9, b2 = 0.999, eps = 1e-8;
+            steps++;
+            double c1 = 1 - Math.pow(b1, steps), c2 = 1 - Math.pow(b2, steps);
+            for (int i = 0; i < value.length; i++) {
+                if (grad[i] == 0) continue;
+                m[i] = b1 * m[i] + (1 - b1) * grad[i];
+                v[i] = b2 * v[i] + (1 - b2) * grad[i] * grad[i];
+                value[i] -= lr * (m[i] / c1) / (Math.sqrt(v[i] / c2) + eps);
+            }
+        }
+
+        EvalParams toParams() {
+            EvalParams p = EvalParams.ACTIVE.copy();
+            for (int i = 0; i < EvalParams.COUNT; i++) {
+                p.set(i, (int) Math.round(value[2 * i]), (int) Math.round(value[2 * i + 1]));
+            }
+            return p;
+        }
+    }
+
+    /** Board e vetor de coeficientes por thread. */
+    private static final class Scratch {
+        final Board board = new Board();
+        final int[] coef = new int[EvalParams.COUNT];
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /** Erro (e, se pedido, gradiente) de um intervalo de registros. */
+    private static final class GradientTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Dataset data;
+        private final Model model;
+        private final double k;
+        private final long from, to;
+        private final boolean withGradient;
+
+        GradientTask(Dataset data, Model model, double k, long from, long to, boolean withGradient) {
+            this.data = data;
+            this.model = model;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+            this.withGradient = withGradient;
+        }
+
+        // [0] soma dos erros quadráticos, [1..] gradiente da soma
+        @Override
+        protected double[] compute() {
+            if (to - from > LEAF_RECORDS) {
+                long mid = (from + to) >>> 1;
+                GradientTask right = new GradientTask(data, model, k, mid, to, withGradient);
+                right.fork();
+                double[] a = new GradientTask(data, model, k, from, mid, withGradient).compute();
+                double[] b = right.join();
+                for (int i = 0; i < a.length; i++) a[i] += b[i];
+                return a;
+            }
+            double[] sum = new double[withGradient ? 1 + model.value.length : 1];
+            Scratch s = SCRATCH.get();
+            for (long i = from; i < to; i++) {
+                double target = data.decode(i, s.board) / 2.0;
+                int phase = Evaluator.trace(s.board, s.coef);
+                double e = model.evaluate(s.coef, phase);
+                double sig = sigmoid(k, e);
+                sum[0] += (sig - target) * (sig - target);
+                if (withGradient) {
+                    // d(erro)/d(avaliação), repartido entre mg e eg pela fase
+                    double d = 2 * (sig - target) * sig * (1 - sig) * k * Math.log(10) / 400;
+                    int p = Math.min(phase, Evaluator.MAX_PHASE);
+                    double dmg = d * p / Evaluator.MAX_PHASE, deg = d * (Evaluator.MAX_PHASE - p) / Evaluator.MAX_PHASE;
+                    for (int c = 0; c < s.coef.length; c++) {
+                        if (s.coef[c] == 0) continue;
+                        sum[1 + 2 * c] += dmg * s.coef[c];
+                        sum[2 + 2 * c] += deg * s.coef[c];
+                    }
+                }
+                Arrays.fill(s.coef, 0);
+            }
+            return sum;
+        }
+    }
+
+    private static double sigmoid(double k, double score) {
+        return 1.0 / (1.0 + Math.pow(10, -k * score / 400));
+    }
+
+    private static void tune(Dataset data, ForkJoinPool pool, int epochs, int batch, double lr, double k, Path out)
+            throws IOException {
+        if (data.size == 0) throw new IOException("empty dataset");
+        System.out.printf("%,d positions%n", data.size);
+        checkTrace(data);
+
+        Model model = new Model(EvalParams.ACTIVE);
+        if (Double.isNaN(k)) k = fitK(data, model, pool);
+        System.out.printf("K=%.3f  initial error=%.6f%n", k, error(data, model, k, pool));
+
+        long batches = (data.size + batch - 1) / batch;
+        SplittableRandom rnd = new SplittableRandom(1);
+        for (int e = 0; e < epochs; e++) {
+            long start = System.nanoTime();
+            double rate = lr / (1 + e);
+            double loss = 0;
+            for (long b : shuffled(batches, rnd)) {
+                long from = b * batch, to = Math.min(data.size, from + batch);
+                double[] g = pool.invoke(new GradientTask(data, model, k, from, to, true));
+                loss += g[0];
+                double[] grad = Arrays.copyOfRange(g, 1, g.length);
+                for (int i = 0; i < grad.length; i++) grad[i] /= (to - from);
+                model.step(grad, rate);
+            }
+            double secs = (System.nanoTime() - start) / 1e9;
+            System.out.printf("epoch %d  error=%.6f  %.1fs (%,.0f positions/s)%n", e + 1, loss / data.size, secs,
+                    data.size / secs);
+            write(model.toParams(), out);
+        }
+        write(model.toParams(), out);
+        System.out.printf("final error=%.6f; parameters written to %s%n", error(data, model, k, pool), out);
+    }
+
+    private static double error(Dataset data, Model model, double k, ForkJoinPool pool) {
+        return pool.invoke(new GradientTask(data, model, k, 0, data.size, false))[0] / data.size;
+    }
+
+    // K que minimiza o erro com os parâmetros atuais (busca por seção áurea numa amostra)
+    private static double fitK(Dataset data, Model model, ForkJoinPool pool) {
+        long n = Math.min(data.size, K_SAMPLE);
+        double lo = 0.1, hi = 3.0, g = (Math.sqrt(5) - 1) / 2;
+        double a = hi - g * (hi - lo), b = lo + g * (hi - lo);
+        double fa = sampleError(data, model, a, n, pool), fb = sampleError(data, model, b, n, pool);
+        for (int i = 0; i < 25; i++) {
+            if (fa < fb) {
+                hi = b; b = a; fb = fa;
+                a = hi - g * (hi - lo);
+                fa = sampleError(data, model, a, n, pool);
+            } else {
+                lo = a; a = b; fa = fb;
+                b = lo + g * (hi - lo);
+                fb = sampleError(data, model, b, n, pool);
+            }
+        }
+        return (lo + hi) / 2;
+    }
+
+    private static double sampleError(Dataset data, Model model, double k, long n, ForkJoinPool pool) {
+        return pool.invoke(new GradientTask(data, model, k, 0, n, false))[0] / n;
+    }
+
+    // Confere que os coeficientes reproduzem a avaliação do motor nas primeiras posições
+    private static void checkTrace(Dataset data) {
+        EvalParams p = EvalParams.ACTIVE;
+        Scratch s = new Scratch();
+        int bad = 0, n = (int) Math.min(data.size, 10_000);
+        for (int i = 0; i < n; i++) {
+            data.decode(i, s.board);
+            Arrays.fill(s.coef, 0);
+            int phase = Evaluator.trace(s.board, s.coef);
+            int mg = 0, eg = 0;
+            for (int c = 0; c < s.coef.length; c++) {
+                mg += s.coef[c] * p.mg(c);
+                eg += s.coef[c] * p.eg(c);
+            }
+            if (Evaluator.taper(mg, eg, phase) != Evaluator.evaluate(s.board, true)) bad++;
+        }
+        if (bad > 0) throw new IllegalStateException(bad + " of " + n + " traces disagree with Evaluator.evaluate");
+    }
+
+    private static long[] shuffled(long n, SplittableRandom rnd) {
+        long[] order = new long[(int) n];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            long t = order[i]; order[i] = order[j]; order[j] = t;
+        }
+        return order;
+    }
+
+    private static void write(EvalParams params, Path out) throws IOException {
+        try (Writer w = new FileWriter(out.toFile(), StandardCharsets.UTF_8)) {
+            params.write(w);
+        }
+    }
+}
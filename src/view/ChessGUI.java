@@ -4,7 +4,6 @@ import controller.AIPlayer;
 import controller.Game;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
 import java.util.List;
 import javax.swing.*;
 import javax.swing.border.Border;
@@ -41,7 +40,7 @@ public class ChessGUI extends JFrame {
     private AIPlayer.Difficulty aiDifficulty = AIPlayer.Difficulty.MEDIUM;
 
     private Position selected = null;
-    private List<Position> legalForSelected = new ArrayList<>();
+    private List<Position> legalForSelected = List.of();
 
     private Position lastFrom = null, lastTo = null;
 
@@ -114,7 +113,7 @@ public class ChessGUI extends JFrame {
                 b.setBorderPainted(true);
                 b.setContentAreaFilled(true);
                 b.setFont(b.getFont().deriveFont(Font.BOLD, 24f));
-                b.addActionListener(e -> handleClick(new Position(rr, cc)));
+                b.addActionListener(e -> handleClick(Position.of(rr, cc)));
                 squares[r][c] = b;
                 boardPanel.add(b);
             }
@@ -257,7 +256,7 @@ public class ChessGUI extends JFrame {
 
     private void doNewGame() {
         selected = null;
-        legalForSelected.clear();
+        legalForSelected = List.of();
         lastFrom = lastTo = null;
         aiThinking = false;
         game.newGame();
@@ -278,8 +277,7 @@ public class ChessGUI extends JFrame {
                 legalForSelected = game.legalMovesFrom(selected);
             }
         } else {
-            List<Position> legals = game.legalMovesFrom(selected);
-            if (legals.contains(clicked)) {
+            if (legalForSelected.contains(clicked)) {
                 Character promo = null;
                 Piece moving = game.board().get(selected);
                 if (moving instanceof Pawn && game.isPromotion(selected, clicked)) {
@@ -291,7 +289,7 @@ public class ChessGUI extends JFrame {
                 game.move(selected, clicked, promo);
 
                 selected = null;
-                legalForSelected.clear();
+                legalForSelected = List.of();
 
                 refresh();
                 maybeAnnounceEnd();
@@ -302,7 +300,7 @@ public class ChessGUI extends JFrame {
                 legalForSelected = game.legalMovesFrom(selected);
             } else {
                 selected = null;
-                legalForSelected.clear();
+                legalForSelected = List.of();
             }
         }
         refresh();
@@ -332,7 +330,11 @@ public class ChessGUI extends JFrame {
         if (game.isGameOver()) return;
 
         boolean isAITurn = pcVsPcItem.isSelected() || (pcAsBlack.isSelected() && !game.whiteToMove());
-        if (!isAITurn) return;
+        if (!isAITurn) {
+            // Human to move: have every piece's legal squares ready before the first click
+            game.precomputeLegalMovesAsync();
+            return;
+        }
 
         aiThinking = true;
         String player = game.whiteToMove() ? "Brancas" : "Pretas";
@@ -357,7 +359,7 @@ public class ChessGUI extends JFrame {
                         Character promo = null;
                         Piece moving = game.board().get(lastFrom);
                         if (moving instanceof Pawn && game.isPromotion(lastFrom, lastTo)) {
-                            promo = 'Q';
+                            promo = (chosen.promotion != null) ? chosen.promotion : 'Q';
                         }
                         game.move(lastFrom, lastTo, promo);
                     }
@@ -399,7 +401,7 @@ public class ChessGUI extends JFrame {
         int iconSize = computeSquareIconSize();
         for (int r = 0; r < 8; r++) {
             for (int c = 0; c < 8; c++) {
-                Piece p = game.board().get(new Position(r, c));
+                Piece p = game.board().get(Position.of(r, c));
                 JButton b = squares[r][c];
 
                 if (p == null) {